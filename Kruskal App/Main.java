@@ -1,8 +1,13 @@
 import javax.swing.SwingUtilities;
+import src.cli.BatchMode;
 import src.logic.GraphApp;
 
 public class Main {
     public static void main(String[] args) {
+        // С аргументами - консольный режим без окна, иначе графический интерфейс
+        if (args.length > 0) {
+            System.exit(BatchMode.run(args));
+        }
         SwingUtilities.invokeLater(GraphApp::new);
     }
 }
\ No newline at end of file
@@ -0,0 +1,270 @@
+package src.bench;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import src.logic.*;
+
+/**Набор замеров конвейера MST: генерация, разбор матрицы, алгоритмы и поиск цикла для отброшенного ребра.
+ * Параметры - форма графа (разреженный, плотный, полный) и количество вершин, веса 1..20.
+ * Для каждой комбинации: прогрев, затем замеры с выводом пропускной способности (оп/с),
+ * задержки (p50, p99), выделения памяти на операцию и скорости выделения (по всем потокам JVM).
+ * Все графы строятся с фиксированным зерном, поэтому прогоны воспроизводимы.
+ *
+ * Запуск: java -cp классы src.bench.MstBenchmark [--bench kruskal,prim] [--shape sparse] [--sizes 1000,5000]
+ *         [--warmup 3] [--iterations 10]
+ */
+public final class MstBenchmark {
+    private static final long SEED = 20240601L;
+    private static final int CYCLE_QUERIES = 1024;
+
+    enum Shape {
+        SPARSE(new int[]{10_000, 100_000}) {
+            long edges(int n) {
+                return Math.min(4L * n, RandomGraphGenerator.maxEdges(n));
+            }
+        },
+        DENSE(new int[]{500, 2_000}) {
+            long edges(int n) {
+                return RandomGraphGenerator.maxEdges(n) / 2;
+            }
+        },
+        COMPLETE(new int[]{500, 2_000}) {
+            long edges(int n) {
+                return RandomGraphGenerator.maxEdges(n);
+            }
+        };
+
+        final int[] defaultSizes;
+
+        Shape(int[] defaultSizes) {
+            this.defaultSizes = defaultSizes;
+        }
+
+        abstract long edges(int n);
+    }
+
+    // Замеряемая операция с подготовкой данных
+    private interface Benchmark {
+        void setUp(Graph graph, File matrixFile) throws IOException;
+
+        void run(int iteration) throws IOException;
+    }
+
+    private static final Map<String, Benchmark> BENCHMARKS = new LinkedHashMap<>();
+
+    static {
+        BENCHMARKS.put("generate", new Benchmark() {
+            private int n;
+            private long m;
+
+            public void setUp(Graph graph, File matrixFile) {
+                n = graph.getVertexCount();
+                m = graph.getEdgeCount();
+            }
+
+            public void run(int iteration) {
+                new RandomGraphGenerator(SEED + iteration).generate(n, m);
+            }
+        });
+        BENCHMARKS.put("parse", new Benchmark() {
+            private File file;
+
+            public void setUp(Graph graph, File matrixFile) {
+                file = matrixFile;
+            }
+
+            public void run(int iteration) throws IOException {
+                MatrixParser.parseGraph(file);
+            }
+        });
+        BENCHMARKS.put("kruskal", engine(graph -> new Kruskal(graph, false)));
+        BENCHMARKS.put("kruskal-steps", engine(graph -> new Kruskal(graph, true)));
+        BENCHMARKS.put("filter", engine(ParallelFilterKruskal::new));
+        BENCHMARKS.put("boruvka", engine(graph -> new Boruvka(graph, false)));
+        BENCHMARKS.put("prim", engine(graph -> new Prim(graph, false)));
+        BENCHMARKS.put("cycle", new Benchmark() {
+            private StepLog log;
+            private int[] rejectedSteps;
+
+            public void setUp(Graph graph, File matrixFile) {
+                Kruskal kruskal = new Kruskal(graph, true);
+                kruskal.computeMST();
+                log = kruskal.getStepLog();
+                // Равномерная выборка шагов с отброшенными ребрами
+                int[] steps = new int[log.getRejectedCount()];
+                int count = 0;
+                for (int step = 1; step <= log.size(); step++) {
+                    if (!log.stateAt(step).isIncluded()) {
+                        steps[count++] = step;
+                    }
+                }
+                int queries = Math.min(CYCLE_QUERIES, count);
+                rejectedSteps = new int[queries];
+                for (int i = 0; i < queries; i++) {
+                    rejectedSteps[i] = steps[(int) ((long) i * count / queries)];
+                }
+            }
+
+            public void run(int iteration) {
+                if (rejectedSteps.length > 0) {
+                    log.stateAt(rejectedSteps[iteration % rejectedSteps.length]).getCycleEdges();
+                }
+            }
+        });
+    }
+
+    private interface EngineFactory {
+        MstAlgorithm create(Graph graph);
+    }
+
+    private static Benchmark engine(EngineFactory factory) {
+        return new Benchmark() {
+            private Graph graph;
+
+            public void setUp(Graph graph, File matrixFile) {
+                this.graph = graph;
+            }
+
+            public void run(int iteration) {
+                factory.create(graph).computeMST();
+            }
+        };
+    }
+
+    private MstBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> benches = new ArrayList<>(BENCHMARKS.keySet());
+        List<Shape> shapes = new ArrayList<>(Arrays.asList(Shape.values()));
+        int[] sizes = null;
+        int warmup = 3;
+        int iterations = 10;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--bench": benches = Arrays.asList(args[++i].split(",")); break;
+                case "--shape":
+                    shapes.clear();
+                    for (String name : args[++i].split(",")) {
+                        shapes.add(Shape.valueOf(name.toUpperCase(Locale.ROOT)));
+                    }
+                    break;
+                case "--sizes": sizes = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                case "--warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "--iterations": iterations = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Неизвестный параметр: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        for (String bench : benches) {
+            if (!BENCHMARKS.containsKey(bench)) {
+                System.err.println("Неизвестный замер: " + bench + ", доступны " + BENCHMARKS.keySet());
+                System.exit(2);
+            }
+        }
+
+        System.out.printf("%-14s %-8s %8s %10s %12s %10s %10s %12s %12s%n",
+                "bench", "shape", "n", "m", "ops/s", "p50 ms", "p99 ms", "alloc B/op", "alloc MB/s");
+        for (Shape shape : shapes) {
+            for (int n : sizes != null ? sizes : shape.defaultSizes) {
+                Graph graph = new RandomGraphGenerator(SEED).generate(n, shape.edges(n));
+                File matrixFile = benches.contains("parse") ? writeMatrix(graph) : null;
+                try {
+                    for (String bench : benches) {
+                        Benchmark benchmark = BENCHMARKS.get(bench);
+                        if (bench.equals("prim") && !Prim.supports(n, graph.getEdgeCount())) {
+                            continue;
+                        }
+                        if (bench.equals("parse") && matrixFile == null) {
+                            System.err.println("parse пропущен для n=" + n + ": матрица слишком велика для текстового файла");
+                            continue;
+                        }
+                        benchmark.setUp(graph, matrixFile);
+                        measure(bench, shape, graph, benchmark, warmup, iterations);
+                    }
+                } finally {
+                    if (matrixFile != null) {
+                        matrixFile.delete();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void measure(String name, Shape shape, Graph graph, Benchmark benchmark,
+                                int warmup, int iterations) throws IOException {
+        boolean cycle = name.equals("cycle");
+        // Поиск цикла - короткая операция, для него больше повторов
+        int runs = cycle ? iterations * 100 : iterations;
+        for (int i = 0; i < (cycle ? warmup * 100 : warmup); i++) {
+            benchmark.run(i);
+        }
+        System.gc();
+
+        long[] nanos = new long[runs];
+        long allocatedBefore = allocatedBytes();
+        long totalStart = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            benchmark.run(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        long totalNanos = System.nanoTime() - totalStart;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Arrays.sort(nanos);
+        System.out.printf("%-14s %-8s %8d %10d %12.2f %10.3f %10.3f %12d %12.1f%n",
+                name, shape.name().toLowerCase(Locale.ROOT), graph.getVertexCount(), graph.getEdgeCount(),
+                runs / (totalNanos / 1e9),
+                nanos[runs / 2] / 1e6,
+                nanos[Math.min(runs - 1, (int) Math.ceil(runs * 0.99) - 1)] / 1e6,
+                allocated / runs,
+                allocated / 1e6 / (totalNanos / 1e9));
+    }
+
+    /**Суммарный объем выделенной памяти по всем живым потокам (учитывает и потоки пула fork-join).
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        long total = 0;
+        for (long bytes : sunThreads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**Записывает граф текстовой матрицей смежности во временный файл для замера разбора.
+     */
+    private static File writeMatrix(Graph graph) throws IOException {
+        int n = graph.getVertexCount();
+        if ((long) n * n > 50_000_000L) {
+            return null; // Слишком большая матрица для текстового файла
+        }
+        int[] matrix = new int[n * n];
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            matrix[graph.src(e) * n + graph.dst(e)] = graph.weight(e);
+            matrix[graph.dst(e) * n + graph.src(e)] = graph.weight(e);
+        }
+        File file = File.createTempFile("bench-matrix", ".txt");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII), 1 << 16)) {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    out.write(Integer.toString(matrix[i * n + j]));
+                    out.write(' ');
+                }
+                out.write('\n');
+            }
+        }
+        return file;
+    }
+}
\ No newline at end of file
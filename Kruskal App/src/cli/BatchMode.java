@@ -0,0 +1,310 @@
+package src.cli;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import src.logic.*;
+
+/**Консольный режим: загрузка графа, построение MST и вывод результата без Swing и без журнала шагов.
+ * Ребра MST выводятся строками "u v вес" (подписи вершин с 1), последней строкой - суммарный вес.
+ * Время каждой фазы (parse, sort, union, output) печатается в stderr, чтобы не смешиваться с результатом.
+ */
+public final class BatchMode {
+    private static final String USAGE = String.join("\n",
+            "Использование: java -jar KruskalApp.jar [параметры]",
+            "  --input ФАЙЛ          матрица смежности (текст) или двоичный граф KGRF",
+            "  --generate N M        вместо файла: случайный граф из N вершин и M ребер",
+            "  --seed ЗЕРНО          зерно для --generate (по умолчанию 1)",
+            "  --edges ФАЙЛ          файл троек int (src, dst, weight) в little-endian для внешней сортировки",
+            "  --vertices N          количество вершин для --edges",
+            "  --run-edges K         сколько ребер сортировать в памяти для --edges (по умолчанию 4194304)",
+            "  --offheap             для --edges: отобразить файл в память и сортировать вне кучи вместо отрезков",
+            "  --algorithm ИМЯ       auto | kruskal | filter | boruvka | prim (по умолчанию auto)",
+            "  --workers N           Краскал по частям в N процессах-исполнителях с последующим слиянием лесов",
+            "  --output ФАЙЛ         куда писать ребра MST (по умолчанию stdout)",
+            "  --cache КАТАЛОГ       брать MST из кэша и сохранять туда новые результаты",
+            "  --quiet               не выводить ребра, только суммарный вес",
+            "  --metrics             собрать метрики фаз и вывести сводку в stderr (доступны и через JMX)");
+
+    private BatchMode() {
+    }
+
+    /**Выполняет консольный режим.
+     * @param args аргументы командной строки.
+     * @return Код завершения: 0 - успех, 1 - ошибка, 2 - неверные аргументы.
+     */
+    public static int run(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (options.metrics) {
+            MstMetrics.register();
+            MstMetrics.get().setEnabled(true);
+        }
+        try {
+            if (options.edgeFile != null && options.offHeap) {
+                runOffHeap(options);
+            } else if (options.edgeFile != null) {
+                runExternal(options);
+            } else {
+                runInMemory(options);
+            }
+            if (options.metrics) {
+                System.err.print(MstMetrics.get().getSummary());
+            }
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ошибка: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static void runInMemory(Options options) throws IOException {
+        long start = System.nanoTime();
+        Graph graph;
+        int[] matrix = null;
+        if (options.input == null) {
+            graph = new RandomGraphGenerator(options.seed).generate(options.generateVertices, options.generateEdges);
+        } else if (GraphFile.isGraphFile(options.input)) {
+            graph = GraphFile.read(options.input);
+        } else if (options.algorithm.equals("prim")) {
+            // Явно выбран Прим - матрица читается сразу в int[n*n], без массивов ребер
+            graph = null;
+            matrix = MatrixParser.parseMatrix(options.input);
+        } else {
+            graph = MatrixParser.parseGraph(options.input);
+        }
+        phase("parse", start);
+
+        String algorithm = options.algorithm;
+        if (options.workers > 0) {
+            algorithm = "partitioned";
+        } else if (algorithm.equals("auto")) {
+            algorithm = MstEngine.forGraph(graph.getVertexCount(), graph.getEdgeCount()) == MstEngine.PRIM ? "prim" : "kruskal";
+        }
+        System.err.println("algorithm " + algorithm);
+
+        MstCache cache = options.cacheDir != null && graph != null ? new MstCache(options.cacheDir) : null;
+        if (cache != null) {
+            start = System.nanoTime();
+            MstCache.Entry cached = cache.get(graph);
+            phase("cache", start);
+            if (cached != null) {
+                System.err.println("cache hit");
+                writeCached(options, graph, cached);
+                return;
+            }
+        }
+
+        start = System.nanoTime();
+        MstAlgorithm engine;
+        int n;
+        if (matrix != null) {
+            n = (int) Math.round(Math.sqrt(matrix.length));
+            engine = new Prim(n, matrix);
+        } else {
+            n = graph.getVertexCount();
+            switch (algorithm) {
+                case "partitioned": engine = new PartitionedKruskal(graph, options.workers); break;
+                case "kruskal": engine = new Kruskal(graph, false); break;
+                case "filter": engine = new ParallelFilterKruskal(graph); break;
+                case "boruvka": engine = new Boruvka(graph, false); break;
+                case "prim": engine = new Prim(graph, false); break;
+                default: throw new IllegalArgumentException("Неизвестный алгоритм: " + algorithm);
+            }
+        }
+        int[] mst = engine.computeMST();
+        if (engine instanceof Kruskal) {
+            Kruskal kruskal = (Kruskal) engine;
+            System.err.printf("sort   %10.1f ms%n", kruskal.getSortNanos() / 1e6);
+            System.err.printf("union  %10.1f ms%n", kruskal.getUnionNanos() / 1e6);
+        } else {
+            phase("mst", start);
+        }
+
+        start = System.nanoTime();
+        try (Writer out = openOutput(options)) {
+            if (!options.quiet) {
+                for (int edge : mst) {
+                    if (matrix != null) {
+                        writeEdge(out, edge / n + 1, edge % n + 1, matrix[edge]);
+                    } else {
+                        writeEdge(out, graph.label(graph.src(edge)), graph.label(graph.dst(edge)), graph.weight(edge));
+                    }
+                }
+            }
+            out.write("# total " + engine.getTotalWeight() + ", edges " + mst.length + "\n");
+        }
+        phase("output", start);
+
+        if (cache != null) {
+            start = System.nanoTime();
+            cache.put(graph, mst, engine.getTotalWeight());
+            phase("store", start);
+        }
+    }
+
+    private static void writeCached(Options options, Graph graph, MstCache.Entry cached) throws IOException {
+        long start = System.nanoTime();
+        try (Writer out = openOutput(options)) {
+            if (!options.quiet) {
+                for (int i = 0; i < cached.size(); i++) {
+                    writeEdge(out, graph.label(cached.src()[i]), graph.label(cached.dst()[i]), cached.weight()[i]);
+                }
+            }
+            out.write("# total " + cached.totalWeight() + ", edges " + cached.size() + "\n");
+        }
+        phase("output", start);
+    }
+
+    private static void runExternal(Options options) throws IOException {
+        ExternalKruskal external = new ExternalKruskal(options.vertices, options.runEdges, null);
+        int size = external.computeMST(options.edgeFile);
+        for (ExternalKruskal.PhaseStats stats : external.getPhases()) {
+            System.err.println(stats);
+        }
+
+        long start = System.nanoTime();
+        try (Writer out = openOutput(options)) {
+            if (!options.quiet) {
+                for (int i = 0; i < size; i++) {
+                    writeEdge(out, external.mstSrc(i) + 1, external.mstDst(i) + 1, external.mstWeight(i));
+                }
+            }
+            out.write("# total " + external.getTotalWeight() + ", edges " + size + "\n");
+        }
+        phase("output", start);
+    }
+
+    private static void runOffHeap(Options options) throws IOException {
+        long start = System.nanoTime();
+        OffHeapEdgeStore store = OffHeapEdgeStore.map(options.edgeFile);
+        phase("parse", start);
+        OffHeapKruskal kruskal = new OffHeapKruskal(store, options.vertices);
+        int size = kruskal.computeMST();
+        System.err.printf("sort   %10.1f ms%n", kruskal.getSortNanos() / 1e6);
+        System.err.printf("union  %10.1f ms%n", kruskal.getUnionNanos() / 1e6);
+
+        start = System.nanoTime();
+        try (Writer out = openOutput(options)) {
+            if (!options.quiet) {
+                for (int i = 0; i < size; i++) {
+                    long edge = kruskal.mstEdge(i);
+                    writeEdge(out, store.src(edge) + 1, store.dst(edge) + 1, store.weight(edge));
+                }
+            }
+            out.write("# total " + kruskal.getTotalWeight() + ", edges " + size + "\n");
+        }
+        phase("output", start);
+    }
+
+    private static Writer openOutput(Options options) throws IOException {
+        OutputStream stream = options.output == null
+                ? new FilterOutputStream(System.out) {
+                    @Override
+                    public void close() throws IOException {
+                        flush(); // stdout не закрываем
+                    }
+                }
+                : new FileOutputStream(options.output);
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static void writeEdge(Writer out, int u, int v, int weight) throws IOException {
+        out.write(Integer.toString(u));
+        out.write(' ');
+        out.write(Integer.toString(v));
+        out.write(' ');
+        out.write(Integer.toString(weight));
+        out.write('\n');
+    }
+
+    private static void phase(String name, long start) {
+        System.err.printf("%-6s %10.1f ms%n", name, (System.nanoTime() - start) / 1e6);
+    }
+
+    // Разобранные аргументы командной строки
+    private static final class Options {
+        File input;
+        File edgeFile;
+        File output;
+        File cacheDir;
+        int generateVertices = -1;
+        long generateEdges;
+        long seed = 1;
+        int vertices = -1;
+        int runEdges = 1 << 22;
+        String algorithm = "auto";
+        boolean quiet;
+        boolean metrics;
+        boolean offHeap;
+        int workers;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--input": options.input = new File(value(args, ++i)); break;
+                    case "--edges": options.edgeFile = new File(value(args, ++i)); break;
+                    case "--output": options.output = new File(value(args, ++i)); break;
+                    case "--cache": options.cacheDir = new File(value(args, ++i)); break;
+                    case "--generate":
+                        options.generateVertices = number(value(args, ++i));
+                        options.generateEdges = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--seed": options.seed = Long.parseLong(value(args, ++i)); break;
+                    case "--vertices": options.vertices = number(value(args, ++i)); break;
+                    case "--run-edges": options.runEdges = number(value(args, ++i)); break;
+                    case "--algorithm": options.algorithm = value(args, ++i); break;
+                    case "--quiet": options.quiet = true; break;
+                    case "--metrics": options.metrics = true; break;
+                    case "--offheap": options.offHeap = true; break;
+                    case "--workers":
+                        options.workers = number(value(args, ++i));
+                        if (options.workers < 1) {
+                            throw new IllegalArgumentException("Нужен хотя бы один исполнитель: " + options.workers);
+                        }
+                        break;
+                    default: throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            int sources = (options.input != null ? 1 : 0) + (options.edgeFile != null ? 1 : 0)
+                    + (options.generateVertices >= 0 ? 1 : 0);
+            if (sources != 1) {
+                throw new IllegalArgumentException("Нужен ровно один источник: --input, --edges или --generate");
+            }
+            if (options.workers > 0 && (options.edgeFile != null || !options.algorithm.equals("auto"))) {
+                throw new IllegalArgumentException("--workers работает с --input или --generate без --algorithm");
+            }
+            if (options.offHeap && options.edgeFile == null) {
+                throw new IllegalArgumentException("--offheap работает только с --edges");
+            }
+            if (options.edgeFile != null && options.vertices < 0) {
+                throw new IllegalArgumentException("Для --edges нужно указать --vertices");
+            }
+            if (!options.algorithm.matches("auto|kruskal|filter|boruvka|prim")) {
+                throw new IllegalArgumentException("Неизвестный алгоритм: " + options.algorithm);
+            }
+            return options;
+        }
+
+        private static String value(String[] args, int i) {
+            if (i >= args.length) {
+                throw new IllegalArgumentException("Не хватает значения для " + args[i - 1]);
+            }
+            return args[i];
+        }
+
+        private static int number(String text) {
+            try {
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ожидалось целое число: " + text);
+            }
+        }
+    }
+}
\ No newline at end of file
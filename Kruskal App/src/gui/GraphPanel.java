@@ -2,11 +2,24 @@ package src.gui;
 
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
-import src.logic.Kruskal;
+import src.logic.DynamicMst;
+import src.logic.ForceLayout;
+import src.logic.Graph;
+import src.logic.GraphFile;
+import src.logic.MatrixParser;
+import src.logic.MstAlgorithm;
+import src.logic.MstCache;
+import src.logic.MstEngine;
+import src.logic.RandomGraphGenerator;
+import src.logic.SessionFile;
 import src.logic.State;
+import src.logic.StepLog;
 import static java.lang.Math.min;
 
 public class GraphPanel extends JPanel {
@@ -29,7 +42,7 @@ public class GraphPanel extends JPanel {
         }
     }
 
-    public static class Edge implements Comparable<Edge> {
+    public static class Edge {
         public Vertex v1, v2;
         public int weight;
 
@@ -43,11 +56,6 @@ public class GraphPanel extends JPanel {
             return v1 == v || v2 == v;
         }
 
-        @Override
-        public int compareTo(Edge other) {
-            return Integer.compare(this.weight, other.weight);
-        }
-
         // Метод для нахождения точки на ребре.
         boolean containsPoint(int x, int y, int threshold) {
             // Проверяем расстояние от точки до линии ребра
@@ -60,17 +68,18 @@ public class GraphPanel extends JPanel {
                 return (v1.x - x)*(v1.x - x) + (v1.y - y)*(v1.y - y) <= threshold*threshold;
             }
 
-            // Вычисляем проекцию точки на линию ребра
-            double t = ((double)((x - v1.x)*dx + (y - v1.y)*dy)) / lengthSquared;
-            t = Math.max(0, min(1, t)); // Ограничиваем проекцию отрезком
-
-            // Ближайшая точка на ребре
-            int projX = (int)(v1.x + t*dx);
-            int projY = (int)(v1.y + t*dy);
+            // Проекция точки выходит за концы отрезка -> ближайшая точка ребра это конец
+            long dot = (long)(x - v1.x)*dx + (long)(y - v1.y)*dy;
+            if (dot <= 0) {
+                return (v1.x - x)*(v1.x - x) + (v1.y - y)*(v1.y - y) <= threshold*threshold;
+            }
+            if (dot >= lengthSquared) {
+                return (v2.x - x)*(v2.x - x) + (v2.y - y)*(v2.y - y) <= threshold*threshold;
+            }
 
-            // Квадрат расстояния до проекции
-            int distSquared = (projX - x)*(projX - x) + (projY - y)*(projY - y);
-            return distSquared <= threshold*threshold;
+            // Расстояние до прямой через векторное произведение, без деления и плавающей точки
+            long cross = (long)(x - v1.x)*dy - (long)(y - v1.y)*dx;
+            return cross*cross <= (long)threshold*threshold*lengthSquared;
         }
     }
 
@@ -80,7 +89,27 @@ public class GraphPanel extends JPanel {
     private int vertexCounter = 0;
     private JTextArea logArea;
 
-    private java.util.List<State> algorithmSteps = new ArrayList<>();
+    private StepLog stepLog = null; // Журнал шагов последнего запуска, null если алгоритм не запускался
+    private SwingWorker<StepLog, long[]> worker = null; // Фоновое построение MST
+
+    // Кэш последнего результата по структурному хэшу MstCache: повторный запуск на том же графе
+    // (в том числе вернувшемся к нему после правок) не пересчитывает MST
+    private long graphVersion = 0; // Растет при каждой правке графа
+    private long keyVersion = -1; // Версия графа, для которой посчитан graphKey
+    private String graphKey = null;
+    private String cachedKey = null;
+    private long cachedVersion = -1; // Версия, для которой cachedEdges - это ребра панели как есть
+    private MstEngine cachedEngine = null;
+    private StepLog cachedLog = null;
+    private java.util.List<Edge> cachedEdges = null;
+
+    // MST, поддерживаемый при правках графа; null если режим выключен
+    private DynamicMst dynamicMst = null;
+    private final IdentityHashMap<Vertex, Integer> dynamicVertexIds = new IdentityHashMap<>();
+    private final IdentityHashMap<Edge, Integer> dynamicEdgeIds = new IdentityHashMap<>();
+    private final ArrayList<Edge> dynamicEdges = new ArrayList<>(); // Ребро панели по id в DynamicMst, null если удалено
+    private MstEngine engine = MstEngine.KRUSKAL;
+    private java.util.List<Edge> algorithmEdges = new ArrayList<>(); // Ребра в порядке их id в графе алгоритма
     private int currentStep = -1;
     private java.util.List<Edge> shownEdges = new ArrayList<>();
     private java.util.List<Edge> excludedEdges = new ArrayList<>();
@@ -89,10 +118,38 @@ public class GraphPanel extends JPanel {
     private TreeSet<Integer> freeLabels = new TreeSet<>();
     private int labelCounter = 1;
 
+    // Кэш отрисовки: статичные ребра и вершины перерисовываются только при изменении графа
+    private static final int LABEL_EDGE_LIMIT = 2000; // Выше этого числа ребер подписи весов не рисуются
+    private static final int LABEL_MARGIN = 40;
+    private BufferedImage edgeLayer;
+    private BufferedImage vertexLayer;
+    private boolean layersDirty = true;
+    private Vertex liveVertex = null; // Перетаскиваемая вершина, ее ребра рисуются поверх кэша
+    private java.util.List<Edge> liveEdges = new ArrayList<>();
+
+    private final SpatialIndex index = new SpatialIndex(); // Сетка для поиска вершин и ребер под курсором
+
+    // Перетаскивание: события мыши копятся и применяются не чаще раза в кадр (~60 FPS)
+    private static final int DRAG_FRAME_MS = 16;
+    private int dragX, dragY;
+    private final javax.swing.Timer dragTimer = new javax.swing.Timer(DRAG_FRAME_MS, e -> applyDrag());
+
+    // Силовая укладка: итерации идут в фоновом потоке, координаты переносятся в вершины не чаще раза в кадр
+    private static final int LAYOUT_FRAME_MS = 33;
+    private static final int LAYOUT_ITERATIONS = 300;
+    private static final int LAYOUT_MARGIN = 30;
+    private ForceLayout layout;
+    private SwingWorker<Void, Void> layoutWorker;
+    private long layoutFrame;
+    private int[] layoutX = new int[0];
+    private int[] layoutY = new int[0];
+    private final javax.swing.Timer layoutTimer = new javax.swing.Timer(LAYOUT_FRAME_MS, e -> applyLayout());
+
     public GraphPanel(JTextArea logArea) {
         this.logArea = logArea;
         setBackground(Color.WHITE);
         setPreferredSize(new Dimension(800, 600));
+        dragTimer.setRepeats(false);
 
         addMouseListener(new MouseAdapter() {
             public void mousePressed(MouseEvent e) {
@@ -104,9 +161,13 @@ public class GraphPanel extends JPanel {
                         if (algorithmRunning && !confirmAlgorithmInterruption()) return;
                         shownEdges.clear();
                         int label = getNextLabel();
-                        vertices.add(new Vertex(e.getX(), e.getY(), label));
+                        Vertex vertex = new Vertex(e.getX(), e.getY(), label);
+                        vertices.add(vertex);
+                        index.addVertex(vertex);
+                        dynamicAddVertex(vertex);
                         selectedVertex = null;
-                        algorithmSteps.clear();
+                        stepLog = null;
+                        graphChanged();
                     } else {
                         if (selectedVertex == null) {
                             selectedVertex = clicked;
@@ -123,13 +184,17 @@ public class GraphPanel extends JPanel {
                                     if (input != null && !input.trim().isEmpty()) {
                                         try {
                                             int weight = Integer.parseInt(input.trim());
-                                            edges.add(new Edge(selectedVertex, clicked, weight));
+                                            Edge edge = new Edge(selectedVertex, clicked, weight);
+                                            edges.add(edge);
+                                            index.addEdge(edge);
+                                            dynamicAddEdge(edge);
+                                            graphChanged();
                                         } catch (NumberFormatException ex) {
                                             JOptionPane.showMessageDialog(null, "Вес должен быть числом");
                                         }
                                     }
                                     selectedVertex = null;
-                                    algorithmSteps.clear();
+                                    stepLog = null;
                                 } else {
                                     selectedVertex = clicked;
                                 }
@@ -139,6 +204,7 @@ public class GraphPanel extends JPanel {
 
                         draggedVertex = clicked;
                         if (draggedVertex != null) {
+                            stopLayout(); // Иначе укладка сразу сдвинет вершину обратно
                             offset.x = e.getX() - draggedVertex.x;
                             offset.y = e.getY() - draggedVertex.y;
                         }
@@ -150,11 +216,14 @@ public class GraphPanel extends JPanel {
                         cycleEdges.clear();
                         excludedEdges.clear();
                         shownEdges.clear();
+                        dynamicRemoveVertex(clicked);
+                        index.removeVertex(clicked);
                         edges.removeIf(edge -> edge.connects(clicked));
                         vertices.remove(clicked);
                         freeLabels.add(clicked.label);
                         selectedVertex = null;
-                        algorithmSteps.clear();
+                        stepLog = null;
+                        graphChanged();
                     } else {
                         // Проверяем клик на ребре
                         Edge edge = getEdgeAt(e.getX(), e.getY());
@@ -165,33 +234,83 @@ public class GraphPanel extends JPanel {
                             excludedEdges.clear();
                             shownEdges.clear();
                             edges.remove(edge);
+                            index.removeEdge(edge);
+                            dynamicRemoveEdge(edge);
                             selectedVertex = null;
-                            algorithmSteps.clear();
+                            stepLog = null;
+                            graphChanged();
                         }
                     }
                 }
 
                 vertexMoved = false;
+                showDynamicMst();
                 repaint();
             }
 
             public void mouseReleased(MouseEvent e) {
+                if (dragTimer.isRunning()) {
+                    // Применяем последнее отложенное перемещение
+                    dragTimer.stop();
+                    applyDrag();
+                }
                 draggedVertex = null;
+                if (liveVertex != null) {
+                    // Возвращаем вершину и ее ребра в кэш
+                    liveVertex = null;
+                    liveEdges.clear();
+                    invalidateLayers();
+                    repaint();
+                }
             }
         });
 
         addMouseMotionListener(new MouseMotionAdapter() {
             public void mouseDragged(MouseEvent e) {
                 if (draggedVertex != null) {
-                    draggedVertex.x = e.getX() - offset.x;
-                    draggedVertex.y = e.getY() - offset.y;
+                    if (liveVertex != draggedVertex) {
+                        // Кэш перестраивается один раз в начале перетаскивания, без этой вершины и ее ребер
+                        liveVertex = draggedVertex;
+                        liveEdges = new ArrayList<>(index.incidentEdges(liveVertex));
+                        invalidateLayers();
+                    }
+                    // События мыши приходят чаще кадров: запоминаем цель, двигаем вершину по таймеру
+                    dragX = e.getX() - offset.x;
+                    dragY = e.getY() - offset.y;
                     vertexMoved = true;
-                    repaint();
+                    if (!dragTimer.isRunning()) {
+                        dragTimer.start();
+                    }
                 }
             }
         });
     }
 
+    /**Переносит перетаскиваемую вершину в последнюю точку курсора и перерисовывает
+     * только область, которую занимали вершина и ее ребра до и после перемещения.
+     */
+    private void applyDrag() {
+        if (draggedVertex == null) {
+            return;
+        }
+        Rectangle dirty = dragBounds(draggedVertex);
+        index.moveVertex(draggedVertex, dragX, dragY);
+        dirty.add(dragBounds(draggedVertex));
+        repaint(dirty);
+    }
+
+    /**Прямоугольник, покрывающий вершину, ее ребра и подписи их весов.
+     */
+    private Rectangle dragBounds(Vertex v) {
+        Rectangle bounds = new Rectangle(v.x - v.radius, v.y - v.radius, v.radius * 2 + 1, v.radius * 2 + 1);
+        for (Edge edge : index.incidentEdges(v)) {
+            bounds.add(edge.v1.x, edge.v1.y);
+            bounds.add(edge.v2.x, edge.v2.y);
+        }
+        bounds.grow(LABEL_MARGIN, LABEL_MARGIN);
+        return bounds;
+    }
+
     /**Функция, подтверждающая остановку алгоритма.
      * @return Возвращает true если алгоритм был прерван. Иначе false.
      */
@@ -208,8 +327,9 @@ public class GraphPanel extends JPanel {
                 options[0] // Первая кнопка по умолчанию
         );
         if (response == JOptionPane.YES_OPTION) {
+            cancelWorker();
             algorithmRunning = false;
-            algorithmSteps.clear();
+            stepLog = null;
             return true;
         }
         return false;
@@ -221,12 +341,7 @@ public class GraphPanel extends JPanel {
      * @return Ребро находящееся по этим координатам, если ребра нет, то возвращает null.
      */
     private Edge getEdgeAt(int x, int y) {
-        for (Edge edge : edges) {
-            if (edge.containsPoint(x, y, 5)) { // Порог 5 пикселей
-                return edge;
-            }
-        }
-        return null;
+        return index.edgeAt(x, y, 5); // Порог 5 пикселей
     }
 
     /**Генерация случайного графа по количеству вершин и ребер.
@@ -234,8 +349,19 @@ public class GraphPanel extends JPanel {
      * @param numEdges количество ребер генерируемого графа.
      */
     public void generateRandomGraph(int numVert, int numEdges) {
+        generateRandomGraph(numVert, numEdges, System.nanoTime());
+    }
+
+    /**Генерация случайного графа с заданным зерном: одинаковое зерно дает тот же граф и ту же раскладку.
+     * @param numVert количество вершин генерируемого графа.
+     * @param numEdges количество ребер генерируемого графа.
+     * @param seed зерно генератора.
+     */
+    public void generateRandomGraph(int numVert, int numEdges, long seed) {
         if (algorithmRunning && !confirmAlgorithmInterruption()) return;
 
+        Graph graph = new RandomGraphGenerator(seed).generate(numVert, numEdges);
+
         shownEdges.clear();
         freeLabels.clear();
         vertices.clear();
@@ -245,51 +371,24 @@ public class GraphPanel extends JPanel {
         vertexCounter = 0;
         labelCounter = 1;
 
-        Random rand = new Random();
+        Random rand = new Random(seed);
 
-        // 1. Создаём вершины в случайных позициях
+        // Создаём вершины в случайных позициях
         for (int i = 0; i < numVert; i++) {
             int x = 100 + rand.nextInt(600);
             int y = 100 + rand.nextInt(400);
             vertices.add(new Vertex(x, y, getNextLabel()));
         }
 
-        // 2. Строим связное остовное дерево
-        ArrayList<Integer> order = new ArrayList<>();
-        for (int i = 0; i < min(numEdges, numVert); i++) order.add(i);
-        Collections.shuffle(order, rand);
-
-        Set<String> edgeSet = new HashSet<>();
-
-        for (int i = 1; i < min(numEdges, numVert); i++) {
-            int v1 = order.get(i);
-            int v2 = order.get(rand.nextInt(i));
-            int weight = 1 + rand.nextInt(20);
-            Vertex a = vertices.get(v1);
-            Vertex b = vertices.get(v2);
-            edges.add(new Edge(a, b, weight));
-            edgeSet.add(min(v1, v2) + "-" + Math.max(v1, v2));
-        }
-
-        // 3. Добавляем случайные рёбра до нужного числа
-        int attempts = 0;
-        while (edges.size() < numEdges && attempts < numEdges * 10) {
-            int i = rand.nextInt(numVert);
-            int j = rand.nextInt(numVert);
-            if (i == j) {
-                attempts++;
-                continue;
-            }
-            String key = min(i, j) + "-" + Math.max(i, j);
-            if (edgeSet.contains(key)) {
-                attempts++;
-                continue;
-            }
-            int weight = 1 + rand.nextInt(20);
-            edges.add(new Edge(vertices.get(i), vertices.get(j), weight));
-            edgeSet.add(key);
+        edges.ensureCapacity(graph.getEdgeCount());
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            edges.add(new Edge(vertices.get(graph.src(e)), vertices.get(graph.dst(e)), graph.weight(e)));
         }
 
+        index.rebuild(vertices, edges);
+        rebuildDynamicMst();
+        showDynamicMst();
+        graphChanged();
         repaint();
     }
 
@@ -299,10 +398,7 @@ public class GraphPanel extends JPanel {
      * @return Вершина находящаяся по этим координатам, если вершины нет, то возвращает null.
      */
     private Vertex getVertexAt(int x, int y) {
-        for (Vertex v : vertices) {
-            if (v.contains(x, y)) return v;
-        }
-        return null;
+        return index.vertexAt(x, y);
     }
 
 
@@ -320,69 +416,137 @@ public class GraphPanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        for (Edge edge : edges) {
-            g.setColor(Color.BLACK);
-            g.drawLine(edge.v1.x, edge.v1.y, edge.v2.x, edge.v2.y);
-            int midX = (edge.v1.x + edge.v2.x) / 2;
-            int midY = (edge.v1.y + edge.v2.y) / 2;
-            g.drawString(Integer.toString(edge.weight), midX, midY);
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        // Отсечение с запасом на подпись веса справа-сверху от середины ребра
+        Rectangle cull = new Rectangle(clip);
+        cull.grow(LABEL_MARGIN, LABEL_MARGIN);
+        boolean showWeights = edges.size() <= LABEL_EDGE_LIMIT;
+
+        // 1. Статичный слой ребер из кэша
+        ensureLayers((Graphics2D) g, showWeights);
+        g.drawImage(edgeLayer, 0, 0, getWidth(), getHeight(), null);
+
+        // 2. Ребра перетаскиваемой вершины, которых нет в кэше
+        for (Edge edge : liveEdges) {
+            drawEdge(g, edge, Color.BLACK, showWeights, cull);
         }
 
-        if (!shownEdges.isEmpty()) {
-            for (Edge edge : shownEdges) {
-                g.setColor(Color.GREEN);
-                g.drawLine(edge.v1.x, edge.v1.y, edge.v2.x, edge.v2.y);
-                int midX = (edge.v1.x + edge.v2.x) / 2;
-                int midY = (edge.v1.y + edge.v2.y) / 2;
-                g.setColor(Color.BLACK);
-                g.drawString(Integer.toString(edge.weight), midX, midY);
-            }
+        // 3. Подсветка шага алгоритма рисуется каждый кадр
+        for (Edge edge : shownEdges) {
+            drawEdge(g, edge, Color.GREEN, showWeights, cull);
+        }
+        for (Edge edge : cycleEdges) {
+            drawEdge(g, edge, Color.PINK, showWeights, cull);
+        }
+        for (Edge edge : excludedEdges) {
+            drawEdge(g, edge, Color.RED.darker(), showWeights, cull);
         }
 
-        if (!cycleEdges.isEmpty()) {
-            for (Edge edge : cycleEdges) {
-                g.setColor(Color.PINK);
-                g.drawLine(edge.v1.x, edge.v1.y, edge.v2.x, edge.v2.y);
-                int midX = (edge.v1.x + edge.v2.x) / 2;
-                int midY = (edge.v1.y + edge.v2.y) / 2;
-                g.setColor(Color.BLACK);
-                g.drawString(Integer.toString(edge.weight), midX, midY);
-            }
+        // 4. Вершины поверх всего
+        g.drawImage(vertexLayer, 0, 0, getWidth(), getHeight(), null);
+        if (liveVertex != null) {
+            drawVertex(g, liveVertex);
         }
+    }
 
-        if (!excludedEdges.isEmpty()){
-            for (Edge edge : excludedEdges) {
-                g.setColor(Color.RED.darker());
-                g.drawLine(edge.v1.x, edge.v1.y, edge.v2.x, edge.v2.y);
-                int midX = (edge.v1.x + edge.v2.x) / 2;
-                int midY = (edge.v1.y + edge.v2.y) / 2;
-                g.setColor(Color.BLACK);
-                g.drawString(Integer.toString(edge.weight), midX, midY);
+    /**Помечает кэшированные слои устаревшими. Вызывается при любом изменении графа.
+     */
+    private void invalidateLayers() {
+        layersDirty = true;
+    }
+
+    /**Отмечает изменение структуры графа (вершины, ребра, веса): сбрасывает кэш результата и слои.
+     * Перемещение вершин структуру не меняет и кэш результата не сбрасывает.
+     */
+    private void graphChanged() {
+        graphVersion++;
+        invalidateLayers();
+        stopLayout(); // Номера вершин в укладке больше не совпадают с панелью
+    }
+
+    /**Перестраивает кэш статичных слоев (ребра и вершины), если граф или размер панели изменились.
+     * Перетаскиваемая вершина и ее ребра в кэш не попадают и рисуются отдельно.
+     */
+    private void ensureLayers(Graphics2D g, boolean showWeights) {
+        double scale = g.getTransform().getScaleX(); // Учитываем масштаб экрана HiDPI
+        int width = Math.max(1, (int) Math.ceil(getWidth() * scale));
+        int height = Math.max(1, (int) Math.ceil(getHeight() * scale));
+        if (!layersDirty && edgeLayer != null && edgeLayer.getWidth() == width && edgeLayer.getHeight() == height) {
+            return;
+        }
+        Rectangle bounds = new Rectangle(0, 0, getWidth(), getHeight());
+        bounds.grow(LABEL_MARGIN, LABEL_MARGIN);
+
+        edgeLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D eg = createLayerGraphics(edgeLayer, g, scale);
+        eg.setColor(getBackground());
+        eg.fillRect(0, 0, getWidth(), getHeight());
+        for (Edge edge : edges) {
+            if (liveVertex == null || !edge.connects(liveVertex)) {
+                drawEdge(eg, edge, Color.BLACK, showWeights, bounds);
             }
         }
+        eg.dispose();
 
+        vertexLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D vg = createLayerGraphics(vertexLayer, g, scale);
         for (Vertex v : vertices) {
-            g.setColor(Color.WHITE);
-            g.fillOval(v.x - v.radius, v.y - v.radius, v.radius * 2, v.radius * 2);
+            if (v != liveVertex) {
+                drawVertex(vg, v);
+            }
+        }
+        vg.dispose();
+        layersDirty = false;
+    }
+
+    private Graphics2D createLayerGraphics(BufferedImage image, Graphics2D screen, double scale) {
+        Graphics2D layer = image.createGraphics();
+        layer.setRenderingHints(screen.getRenderingHints());
+        layer.setFont(getFont());
+        layer.scale(scale, scale);
+        return layer;
+    }
+
+    private void drawEdge(Graphics g, Edge edge, Color color, boolean showWeight, Rectangle cull) {
+        if (!cull.intersectsLine(edge.v1.x, edge.v1.y, edge.v2.x, edge.v2.y)) {
+            return;
+        }
+        g.setColor(color);
+        g.drawLine(edge.v1.x, edge.v1.y, edge.v2.x, edge.v2.y);
+        if (showWeight) {
+            int midX = (edge.v1.x + edge.v2.x) / 2;
+            int midY = (edge.v1.y + edge.v2.y) / 2;
             g.setColor(Color.BLACK);
-            g.drawOval(v.x - v.radius, v.y - v.radius, v.radius * 2, v.radius * 2);
-            g.drawString(Integer.toString(v.label), v.x - 7, v.y + 5);
+            g.drawString(Integer.toString(edge.weight), midX, midY);
         }
     }
 
+    private void drawVertex(Graphics g, Vertex v) {
+        g.setColor(Color.WHITE);
+        g.fillOval(v.x - v.radius, v.y - v.radius, v.radius * 2, v.radius * 2);
+        g.setColor(Color.BLACK);
+        g.drawOval(v.x - v.radius, v.y - v.radius, v.radius * 2, v.radius * 2);
+        g.drawString(Integer.toString(v.label), v.x - 7, v.y + 5);
+    }
+
 
     /**Метод для прыжка сразу на последний шаг алгоритма и вывод результата на интерфейс.
      */
     public void runAlgorithmResult() {
-        algorithmRunning = true;
-        algorithmSteps.clear();
-        currentStep = -1;
-        runAlgorithm();
-        step(algorithmSteps.size());
-        if (!algorithmSteps.isEmpty()) {
-            State lastState = algorithmSteps.get(algorithmSteps.size() - 1);
-            shownEdges = new ArrayList<>(lastState.getIncludedEdges());
-            excludedEdges = new ArrayList<>(lastState.getExcludedEdges());
+        startAlgorithm(true);
+    }
+
+    /**Переход к последнему шагу после завершения вычисления.
+     */
+    private void showResult() {
+        step(getStepCount());
+        if (getStepCount() > 0) {
+            State lastState = stepLog.stateAt(stepLog.size());
+            shownEdges = toPanelEdges(lastState.getIncludedEdges());
+            excludedEdges = toPanelEdges(lastState.getExcludedEdges());
             cycleEdges.clear();
             logArea.setText("Минимальное остовное дерево построено.\n");
             repaint();
@@ -394,24 +558,258 @@ public class GraphPanel extends JPanel {
      * вызывает алгоритм и запоминает все его шаги для последующей визуализации.
      */
     public void runAlgorithm() {
+        startAlgorithm(false);
+    }
+
+    /**Запускает построение MST в фоновом потоке, чтобы окно не зависало.
+     * Граф копируется на EDT, поэтому правки панели во время вычисления не влияют на результат.
+     * Журнал шагов применяется к панели только целиком, после успешного завершения.
+     * Прервать вычисление можно через confirmAlgorithmInterruption.
+     * @param toResult перейти сразу к последнему шагу, иначе к первому.
+     */
+    private void startAlgorithm(boolean toResult) {
+        if (worker != null && !worker.isDone()) return; // Вычисление уже идет
         algorithmRunning = true;
-        algorithmSteps.clear();
+        stepLog = null;
         currentStep = -1;
+        shownEdges.clear();
+        excludedEdges.clear();
+        cycleEdges.clear();
 
-        Kruskal kruskal = new Kruskal(edges, vertices.size());
-        kruskal.computeMST();
+        if (cachedLog != null && cachedEngine == engine) {
+            // Граф не менялся с прошлого запуска или снова совпал с ним по структуре - журнал шагов берем из кэша
+            java.util.List<Edge> matched = cachedVersion == graphVersion ? cachedEdges : matchCachedEdges();
+            if (matched != null) {
+                stepLog = cachedLog;
+                algorithmEdges = matched;
+                cachedEdges = matched;
+                cachedVersion = graphVersion;
+                if (toResult) {
+                    showResult();
+                } else {
+                    step(1);
+                }
+                return;
+            }
+        }
+        long version = graphVersion;
 
-        algorithmSteps.add(new State(
-                Collections.emptyList(),
-                Collections.emptyList(),
-                0,
-                null,
-                false,
-                Collections.emptyList()
-        ));
-        algorithmSteps.addAll(kruskal.getStates());
+        Graph graph = buildGraph();
+        String key = graphKey(graph);
+        java.util.List<Edge> graphEdges = new ArrayList<>(edges);
+        MstEngine selected = engine;
+        logArea.setText("Вычисление MST...\n");
+        repaint();
+
+        worker = new SwingWorker<>() {
+            @Override
+            protected StepLog doInBackground() {
+                MstAlgorithm algorithm = selected.create(graph, true);
+                algorithm.setProgressListener((done, total, mstSize) -> {
+                    if (isCancelled()) {
+                        throw new CancellationException();
+                    }
+                    publish(new long[]{done, total, mstSize});
+                });
+                algorithm.computeMST();
+                return algorithm.getStepLog();
+            }
+
+            @Override
+            protected void process(java.util.List<long[]> chunks) {
+                if (isCancelled()) return;
+                long[] last = chunks.get(chunks.size() - 1);
+                logArea.setText("Вычисление MST...\nВыполнено: " + last[0] + " из " + last[1]
+                        + "\nРебер в MST: " + last[2] + "\n");
+            }
+
+            @Override
+            protected void done() {
+                // Прерванный или замененный новым запуск ничего не меняет на панели
+                if (isCancelled() || worker != this) return;
+                try {
+                    stepLog = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    algorithmRunning = false;
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    logArea.setText("Ошибка вычисления: " + cause.getMessage() + "\n");
+                    return;
+                }
+                algorithmEdges = graphEdges;
+                cachedLog = stepLog;
+                cachedEdges = graphEdges;
+                cachedEngine = selected;
+                cachedVersion = version;
+                cachedKey = key;
+                if (toResult) {
+                    showResult();
+                } else {
+                    step(1);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**Запускает силовую укладку графа в фоновом потоке, начиная с текущих координат.
+     * Промежуточные координаты вписываются в панель и показываются по таймеру, пока итерации не закончатся.
+     * Укладка не меняет граф, поэтому журнал шагов и кэш результата остаются в силе.
+     */
+    public void startLayout() {
+        stopLayout();
+        int n = vertices.size();
+        if (n < 2) return;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = vertices.get(i).x;
+            y[i] = vertices.get(i).y;
+        }
+        ForceLayout current = new ForceLayout(buildGraph(), x, y,
+                Math.max(getWidth(), 1), Math.max(getHeight(), 1), LAYOUT_ITERATIONS);
+        layout = current;
+        layoutFrame = 0;
+        layoutX = new int[n];
+        layoutY = new int[n];
+
+        layoutWorker = new SwingWorker<>() {
+            @Override
+            protected Void doInBackground() {
+                while (!isCancelled() && current.iterate()) {
+                    // Каждая итерация публикует снимок, его забирает таймер
+                }
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || layoutWorker != this) return;
+                applyLayout();
+                stopLayout();
+            }
+        };
+        layoutTimer.start();
+        layoutWorker.execute();
+    }
+
+    /**Останавливает укладку. Вершины остаются там, куда их успел поставить последний кадр.
+     */
+    public void stopLayout() {
+        if (layoutWorker != null) {
+            layoutWorker.cancel(false); // Поток укладки проверяет флаг между итерациями
+            layoutWorker = null;
+        }
+        layoutTimer.stop();
+        layout = null;
+    }
+
+    /**Переносит последний снимок укладки в координаты вершин, если с прошлого кадра появился новый.
+     */
+    private void applyLayout() {
+        if (layout == null || layout.getFrame() == layoutFrame || layoutX.length != vertices.size()) return;
+        int width = Math.max(getWidth() - 2 * LAYOUT_MARGIN, 1);
+        int height = Math.max(getHeight() - 2 * LAYOUT_MARGIN, 1);
+        layoutFrame = layout.copyPositions(layoutX, layoutY, LAYOUT_MARGIN, LAYOUT_MARGIN, width, height);
+        for (int i = 0; i < vertices.size(); i++) {
+            vertices.get(i).x = layoutX[i];
+            vertices.get(i).y = layoutY[i];
+        }
+        index.rebuild(vertices, edges);
+        invalidateLayers();
+        repaint();
+    }
+
+    /**Структурный хэш графа панели. Пересчитывается только после правок (когда изменилась graphVersion).
+     * @param graph граф, построенный buildGraph для текущей версии.
+     */
+    private String graphKey(Graph graph) {
+        if (keyVersion != graphVersion) {
+            graphKey = MstCache.key(graph);
+            keyVersion = graphVersion;
+        }
+        return graphKey;
+    }
 
-        step(1);
+    /**Сопоставляет ребрам графа кэшированного журнала ребра панели с теми же концами и весом.
+     * Вызывается, когда граф правили после запуска: хэш совпадает, если правки вернули тот же граф.
+     * @return Ребра панели по id ребер графа журнала или null, если графы различаются.
+     */
+    private java.util.List<Edge> matchCachedEdges() {
+        String key = keyVersion == graphVersion ? graphKey : graphKey(buildGraph());
+        Graph cached = cachedLog.getGraph();
+        if (!key.equals(cachedKey) || cached.getVertexCount() != vertices.size()
+                || cached.getEdgeCount() != edges.size()) {
+            return null;
+        }
+        IdentityHashMap<Vertex, Integer> ids = new IdentityHashMap<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.put(vertices.get(i), i);
+        }
+        // Ребра панели по паре концов; параллельные ребра различаются весом
+        HashMap<Long, java.util.List<Edge>> byPair = new HashMap<>();
+        for (Edge edge : edges) {
+            long pair = pairKey(ids.get(edge.v1), ids.get(edge.v2));
+            byPair.computeIfAbsent(pair, p -> new ArrayList<>(1)).add(edge);
+        }
+        java.util.List<Edge> matched = new ArrayList<>(edges.size());
+        for (int e = 0; e < cached.getEdgeCount(); e++) {
+            java.util.List<Edge> candidates = byPair.get(pairKey(cached.src(e), cached.dst(e)));
+            int found = -1;
+            for (int i = 0; candidates != null && i < candidates.size() && found == -1; i++) {
+                if (candidates.get(i).weight == cached.weight(e)) {
+                    found = i;
+                }
+            }
+            if (found == -1) {
+                return null; // Коллизия хэша
+            }
+            matched.add(candidates.get(found));
+            candidates.set(found, candidates.get(candidates.size() - 1));
+            candidates.remove(candidates.size() - 1);
+        }
+        return matched;
+    }
+
+    private static long pairKey(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    /**Прерывает фоновое вычисление, если оно идет.
+     */
+    private void cancelWorker() {
+        if (worker != null) {
+            worker.cancel(false); // Алгоритм проверяет флаг при очередном сообщении о прогрессе
+            worker = null;
+        }
+    }
+
+
+    /**Строит компактный граф для алгоритма: id вершины - индекс в vertices, id ребра - индекс в edges.
+     * Панель хранит только соответствие id и объектов с координатами на экране.
+     * @return Граф без ссылок на объекты интерфейса.
+     */
+    private Graph buildGraph() {
+        IdentityHashMap<Vertex, Integer> ids = new IdentityHashMap<>();
+        Graph graph = new Graph(vertices.size(), edges.size());
+        for (int i = 0; i < vertices.size(); i++) {
+            Vertex v = vertices.get(i);
+            ids.put(v, i);
+            graph.setLabel(i, v.label);
+        }
+        for (Edge edge : edges) {
+            graph.addEdge(ids.get(edge.v1), ids.get(edge.v2), edge.weight);
+        }
+        return graph;
+    }
+
+    /**Переводит идентификаторы ребер графа алгоритма в ребра панели.
+     */
+    private java.util.List<Edge> toPanelEdges(int[] edgeIds) {
+        java.util.List<Edge> result = new ArrayList<>(edgeIds.length);
+        for (int id : edgeIds) {
+            result.add(algorithmEdges.get(id));
+        }
+        return result;
     }
 
 
@@ -423,41 +821,41 @@ public class GraphPanel extends JPanel {
 
         currentStep += delta;
 
-        if (algorithmSteps.size() == 0) {
+        int stepCount = getStepCount();
+        if (stepCount == 0) {
             return;
         }
         if (currentStep < 0) {
             currentStep = 0;
-        } else if (currentStep > algorithmSteps.size()) {
-            currentStep = algorithmSteps.size();
+        } else if (currentStep > stepCount) {
+            currentStep = stepCount;
         }
 
         if (currentStep == previousStep) {
             return;
         }
 
-        if (currentStep == algorithmSteps.size() && currentStep > 0) {
-            if (!algorithmSteps.isEmpty()) {
-                State lastState = algorithmSteps.get(algorithmSteps.size() - 1);
-                shownEdges = new ArrayList<>(lastState.getIncludedEdges());
-                excludedEdges = new ArrayList<>(lastState.getExcludedEdges());
-            }
+        if (currentStep == stepCount) {
+            State lastState = stepLog.stateAt(stepLog.size());
+            shownEdges = toPanelEdges(lastState.getIncludedEdges());
+            excludedEdges = toPanelEdges(lastState.getExcludedEdges());
             cycleEdges.clear();
             logArea.setText("Минимальное остовное дерево построено.\n");
             repaint();
             return;
         }
 
-        State currentState = algorithmSteps.get(currentStep);
-        if (currentState.getCurrentEdge() == null) {
+        // Состояние восстанавливается из журнала по ближайшей контрольной точке
+        State currentState = stepLog.stateAt(currentStep);
+        if (currentState.getCurrentEdge() == State.NO_EDGE) {
             shownEdges.clear();
             excludedEdges.clear();
             cycleEdges.clear();
             logArea.setText("Начало алгоритма\n");
         } else {
-            shownEdges = new ArrayList<>(currentState.getIncludedEdges());
-            excludedEdges = new ArrayList<>(currentState.getExcludedEdges());
-            cycleEdges = new ArrayList<>(currentState.getCycleEdges());
+            shownEdges = toPanelEdges(currentState.getIncludedEdges());
+            excludedEdges = toPanelEdges(currentState.getExcludedEdges());
+            cycleEdges = toPanelEdges(currentState.getCycleEdges());
             logArea.setText(currentState.toString());
         }
         repaint();
@@ -470,23 +868,26 @@ public class GraphPanel extends JPanel {
     public void loadFromFile(File file) {
         if (algorithmRunning && !confirmAlgorithmInterruption()) return;
 
-        shownEdges.clear();
-        excludedEdges.clear();
-        cycleEdges.clear();
-        vertexCounter = 0;
-        labelCounter = 1;
-        freeLabels.clear();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+        try {
+            // Текущий граф и подписи сбрасываются только после успешного чтения файла
+            if (SessionFile.isSessionFile(file)) {
+                SessionFile.Session session = SessionFile.read(file);
+                shownEdges.clear();
+                excludedEdges.clear();
+                cycleEdges.clear();
+                vertexCounter = 0;
+                restoreSession(session);
+                return;
+            }
+            // Двоичный формат узнаем по сигнатуре, иначе потоковый разбор текстовой матрицы
+            Graph graph = GraphFile.isGraphFile(file) ? GraphFile.read(file) : MatrixParser.parseGraph(file);
+            shownEdges.clear();
+            excludedEdges.clear();
+            cycleEdges.clear();
             vertices.clear();
             edges.clear();
             vertexCounter = 0;
-            ArrayList<String[]> lines = new ArrayList<>();
-            String line;
-            while ((line = br.readLine()) != null) {
-                lines.add(line.trim().split("\\s+"));
-            }
-            int n = lines.size();
+            int n = graph.getVertexCount();
 
             int centerX = getWidth() / 2;
             int centerY = getHeight() / 2;
@@ -495,38 +896,247 @@ public class GraphPanel extends JPanel {
                 double angle = 2 * Math.PI * i / n;
                 int x = centerX + (int)(radius * Math.cos(angle));
                 int y = centerY + (int)(radius * Math.sin(angle));
-                vertices.add(new Vertex(x, y, getNextLabel()));
+                vertices.add(new Vertex(x, y, graph.label(i)));
             }
+            restoreLabelCounter();
 
-            for (int i = 0; i < n; i++) {
-                for (int j = i + 1; j < n; j++) {
-                    String val = lines.get(i)[j];
-                    if (!val.equals("0")) {
-                        try {
-                            int weight = Integer.parseInt(val);
-                            edges.add(new Edge(vertices.get(i), vertices.get(j), weight));
-                        } catch (NumberFormatException e) {
-                            JOptionPane.showMessageDialog(this, "Неверный формат веса: " + val);
-                        }
-                    }
-                }
+            edges.ensureCapacity(graph.getEdgeCount());
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                edges.add(new Edge(vertices.get(graph.src(e)), vertices.get(graph.dst(e)), graph.weight(e)));
             }
+            // Для плотной матрицы выгоднее Прим: O(n^2) без сортировки ребер
+            engine = MstEngine.forGraph(vertices.size(), edges.size());
+            index.rebuild(vertices, edges);
+            rebuildDynamicMst();
+            showDynamicMst();
+            graphChanged();
             repaint();
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Ошибка чтения файла: " + e.getMessage());
+        }
+    }
+
+    /**Сохранение текущего графа в двоичном формате GraphFile.
+     * @param file файл, в который будет записан граф.
+     */
+    public void saveToFile(File file) {
+        try {
+            GraphFile.write(buildGraph(), file, true);
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(this, "Ошибка чтения файла");
+            JOptionPane.showMessageDialog(this, "Ошибка записи файла: " + e.getMessage());
         }
     }
 
+    /**Сохранение сеанса: граф с координатами, свободные подписи, алгоритм и журнал шагов с текущим шагом.
+     * Журнал пишется, только если он построен по текущему набору ребер.
+     * @param file файл снимка сеанса.
+     */
+    public void saveSession(File file) {
+        boolean logMatches = stepLog != null && algorithmEdges != null && algorithmEdges.equals(edges);
+        int[] x = new int[vertices.size()];
+        int[] y = new int[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            x[i] = vertices.get(i).x;
+            y[i] = vertices.get(i).y;
+        }
+        int[] free = new int[freeLabels.size()];
+        int i = 0;
+        for (int label : freeLabels) {
+            free[i++] = label;
+        }
+        SessionFile.Session session = new SessionFile.Session(buildGraph(), x, y, free, labelCounter, engine,
+                logMatches ? stepLog : null, logMatches ? currentStep : -1);
+        try {
+            SessionFile.write(session, file);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Ошибка записи файла: " + e.getMessage());
+        }
+    }
+
+    /**Восстанавливает панель из снимка сеанса без повторного запуска алгоритма.
+     * Журнал шагов сразу попадает в кэш, так что "Результат" по нему не пересчитывается.
+     */
+    private void restoreSession(SessionFile.Session session) {
+        cancelWorker();
+        Graph graph = session.graph();
+        vertices.clear();
+        edges.clear();
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            vertices.add(new Vertex(session.x()[v], session.y()[v], graph.label(v)));
+        }
+        freeLabels.clear();
+        for (int label : session.freeLabels()) {
+            freeLabels.add(label);
+        }
+        labelCounter = session.labelCounter();
+
+        edges.ensureCapacity(graph.getEdgeCount());
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            edges.add(new Edge(vertices.get(graph.src(e)), vertices.get(graph.dst(e)), graph.weight(e)));
+        }
+        engine = session.engine();
+        index.rebuild(vertices, edges);
+        rebuildDynamicMst();
+        graphChanged();
+
+        stepLog = session.stepLog();
+        currentStep = -1;
+        if (stepLog != null) {
+            algorithmEdges = new ArrayList<>(edges);
+            cachedLog = stepLog;
+            cachedEdges = algorithmEdges;
+            cachedEngine = engine;
+            cachedVersion = graphVersion;
+            cachedKey = graphKey(graph);
+            algorithmRunning = true;
+            step(Math.max(session.currentStep(), 0) + 1);
+        } else {
+            algorithmRunning = false;
+            logArea.setText("");
+            showDynamicMst();
+        }
+        repaint();
+    }
+
+    /**Восстанавливает labelCounter и freeLabels по подписям уже созданных вершин.
+     */
+    private void restoreLabelCounter() {
+        int maxLabel = 0;
+        BitSet used = new BitSet();
+        for (Vertex v : vertices) {
+            maxLabel = Math.max(maxLabel, v.label);
+            if (v.label > 0) used.set(v.label);
+        }
+        freeLabels.clear();
+        for (int label = used.nextClearBit(1); label < maxLabel; label = used.nextClearBit(label + 1)) {
+            freeLabels.add(label);
+        }
+        labelCounter = maxLabel + 1;
+    }
+
+    /**Возвращает количество состояний для просмотра: начальное и по одному на каждое ребро.
+     */
+    private int getStepCount() {
+        return stepLog == null ? 0 : stepLog.size() + 1;
+    }
+
     /**Возвращает номер текущего шага алгоритма.
      */
     public int getCurrentStep() {
         return currentStep;
     }
 
+    /**Возвращает алгоритм, который будет запущен.
+     */
+    public MstEngine getEngine() {
+        return engine;
+    }
+
+    /**Выбирает алгоритм построения MST. Результаты прошлого запуска сбрасываются.
+     * @param engine алгоритм для следующих запусков.
+     */
+    public void setEngine(MstEngine engine) {
+        if (this.engine == engine) return;
+        this.engine = engine;
+        cancelWorker();
+        algorithmRunning = false;
+        stepLog = null;
+        currentStep = -1;
+        shownEdges.clear();
+        excludedEdges.clear();
+        cycleEdges.clear();
+        logArea.setText("");
+        showDynamicMst();
+        repaint();
+    }
+
+    /**Включает поддержку MST при правках графа. Пока алгоритм не запущен пошагово,
+     * после каждой правки подсвечивается текущий MST без пересчета с нуля.
+     * @param enabled включить или выключить режим.
+     */
+    public void setDynamicMst(boolean enabled) {
+        if (enabled) {
+            dynamicMst = new DynamicMst();
+            rebuildDynamicMst();
+            showDynamicMst();
+        } else {
+            dynamicMst = null;
+            dynamicVertexIds.clear();
+            dynamicEdgeIds.clear();
+            dynamicEdges.clear();
+            if (stepLog == null && !algorithmRunning) {
+                shownEdges.clear();
+                logArea.setText("");
+            }
+        }
+        repaint();
+    }
+
+    /**Заново заполняет DynamicMst всеми вершинами и ребрами панели.
+     */
+    private void rebuildDynamicMst() {
+        if (dynamicMst == null) return;
+        dynamicMst = new DynamicMst();
+        dynamicVertexIds.clear();
+        dynamicEdgeIds.clear();
+        dynamicEdges.clear();
+        for (Vertex v : vertices) {
+            dynamicAddVertex(v);
+        }
+        for (Edge edge : edges) {
+            dynamicAddEdge(edge);
+        }
+    }
+
+    private void dynamicAddVertex(Vertex v) {
+        if (dynamicMst == null) return;
+        dynamicVertexIds.put(v, dynamicMst.addVertex());
+    }
+
+    private void dynamicAddEdge(Edge edge) {
+        if (dynamicMst == null) return;
+        int id = dynamicMst.addEdge(dynamicVertexIds.get(edge.v1), dynamicVertexIds.get(edge.v2), edge.weight);
+        dynamicEdgeIds.put(edge, id);
+        dynamicEdges.add(edge); // id ребра совпадает с его индексом в dynamicEdges
+    }
+
+    private void dynamicRemoveEdge(Edge edge) {
+        if (dynamicMst == null) return;
+        int id = dynamicEdgeIds.remove(edge);
+        dynamicMst.removeEdge(id);
+        dynamicEdges.set(id, null);
+    }
+
+    // Вызывается до удаления вершины из индекса, пока известны ее ребра
+    private void dynamicRemoveVertex(Vertex v) {
+        if (dynamicMst == null) return;
+        for (Edge edge : index.incidentEdges(v)) {
+            dynamicEdges.set(dynamicEdgeIds.remove(edge), null);
+        }
+        dynamicMst.removeVertex(dynamicVertexIds.remove(v));
+    }
+
+    /**Подсвечивает текущий MST из DynamicMst, если режим включен и пошаговый алгоритм не запущен.
+     */
+    private void showDynamicMst() {
+        if (dynamicMst == null || stepLog != null || algorithmRunning) return;
+        int[] tree = dynamicMst.getTreeEdges();
+        shownEdges = new ArrayList<>(tree.length);
+        for (int id : tree) {
+            shownEdges.add(dynamicEdges.get(id));
+        }
+        excludedEdges.clear();
+        cycleEdges.clear();
+        logArea.setText("Минимальное остовное дерево: ребер " + tree.length
+                + ", суммарный вес " + dynamicMst.getTotalWeight() + "\n");
+    }
+
     /**Ставит значение флага algorithmRunning на нужное.
      * @param algorithmRunning состояние которое нужно поставить.
      */
     public void setAlgorithmRunning(boolean algorithmRunning) {
         this.algorithmRunning = algorithmRunning;
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,200 @@
+package src.gui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**Равномерная сетка для поиска вершин и ребер под курсором.
+ * Вершина хранится в ячейке своего центра, ребро - во всех ячейках, через которые проходит отрезок.
+ * Поиск проверяет только ячейки рядом с точкой, поэтому в среднем стоит O(1), а не O(V + E).
+ * Для каждой вершины хранится список инцидентных ребер, чтобы при перетаскивании
+ * переиндексировать только их.
+ */
+class SpatialIndex {
+    // Размер ячейки больше диаметра вершины: вершина под курсором всегда в соседней ячейке
+    static final int CELL_SIZE = 32;
+
+    private final Map<Long, List<GraphPanel.Vertex>> vertexCells = new HashMap<>();
+    private final Map<Long, List<GraphPanel.Edge>> edgeCells = new HashMap<>();
+    private final Map<GraphPanel.Vertex, List<GraphPanel.Edge>> incident = new IdentityHashMap<>();
+
+    // Действие над ячейкой при обходе отрезка
+    private interface CellAction {
+        void apply(long cell);
+    }
+
+    void clear() {
+        vertexCells.clear();
+        edgeCells.clear();
+        incident.clear();
+    }
+
+    /**Строит индекс заново по всем вершинам и ребрам.
+     */
+    void rebuild(List<GraphPanel.Vertex> vertices, List<GraphPanel.Edge> edges) {
+        clear();
+        for (GraphPanel.Vertex v : vertices) {
+            addVertex(v);
+        }
+        for (GraphPanel.Edge edge : edges) {
+            addEdge(edge);
+        }
+    }
+
+    void addVertex(GraphPanel.Vertex v) {
+        vertexCells.computeIfAbsent(cellOf(v.x, v.y), key -> new ArrayList<>()).add(v);
+        incident.computeIfAbsent(v, key -> new ArrayList<>());
+    }
+
+    /**Удаляет вершину вместе со всеми инцидентными ей ребрами.
+     */
+    void removeVertex(GraphPanel.Vertex v) {
+        for (GraphPanel.Edge edge : incidentEdges(v).toArray(new GraphPanel.Edge[0])) {
+            removeEdge(edge);
+        }
+        removeFromCell(vertexCells, cellOf(v.x, v.y), v);
+        incident.remove(v);
+    }
+
+    void addEdge(GraphPanel.Edge edge) {
+        forEachCell(edge, cell -> edgeCells.computeIfAbsent(cell, key -> new ArrayList<>()).add(edge));
+        incident.computeIfAbsent(edge.v1, key -> new ArrayList<>()).add(edge);
+        if (edge.v2 != edge.v1) {
+            incident.computeIfAbsent(edge.v2, key -> new ArrayList<>()).add(edge);
+        }
+    }
+
+    void removeEdge(GraphPanel.Edge edge) {
+        forEachCell(edge, cell -> removeFromCell(edgeCells, cell, edge));
+        List<GraphPanel.Edge> list = incident.get(edge.v1);
+        if (list != null) {
+            list.remove(edge);
+        }
+        list = incident.get(edge.v2);
+        if (list != null) {
+            list.remove(edge);
+        }
+    }
+
+    /**Переносит вершину в точку (x, y) и переиндексирует только ее ребра.
+     */
+    void moveVertex(GraphPanel.Vertex v, int x, int y) {
+        List<GraphPanel.Edge> edges = incidentEdges(v);
+        for (GraphPanel.Edge edge : edges) {
+            forEachCell(edge, cell -> removeFromCell(edgeCells, cell, edge));
+        }
+        long oldCell = cellOf(v.x, v.y);
+        long newCell = cellOf(x, y);
+        if (oldCell != newCell) {
+            removeFromCell(vertexCells, oldCell, v);
+            vertexCells.computeIfAbsent(newCell, key -> new ArrayList<>()).add(v);
+        }
+        v.x = x;
+        v.y = y;
+        for (GraphPanel.Edge edge : edges) {
+            forEachCell(edge, cell -> edgeCells.computeIfAbsent(cell, key -> new ArrayList<>()).add(edge));
+        }
+    }
+
+    /**Возвращает ребра, инцидентные вершине. Список принадлежит индексу и не должен изменяться.
+     */
+    List<GraphPanel.Edge> incidentEdges(GraphPanel.Vertex v) {
+        List<GraphPanel.Edge> list = incident.get(v);
+        return list != null ? list : List.of();
+    }
+
+    /**Вершина, содержащая точку (x, y), или null.
+     */
+    GraphPanel.Vertex vertexAt(int x, int y) {
+        int cx = Math.floorDiv(x, CELL_SIZE);
+        int cy = Math.floorDiv(y, CELL_SIZE);
+        for (int i = cx - 1; i <= cx + 1; i++) {
+            for (int j = cy - 1; j <= cy + 1; j++) {
+                List<GraphPanel.Vertex> cell = vertexCells.get(key(i, j));
+                if (cell == null) {
+                    continue;
+                }
+                for (GraphPanel.Vertex v : cell) {
+                    if (v.contains(x, y)) {
+                        return v;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**Ребро, проходящее не дальше threshold пикселей от точки (x, y), или null.
+     * Проверяются ячейки, пересекающие квадрат со стороной 2 * threshold вокруг точки.
+     */
+    GraphPanel.Edge edgeAt(int x, int y, int threshold) {
+        int fromX = Math.floorDiv(x - threshold, CELL_SIZE), toX = Math.floorDiv(x + threshold, CELL_SIZE);
+        int fromY = Math.floorDiv(y - threshold, CELL_SIZE), toY = Math.floorDiv(y + threshold, CELL_SIZE);
+        for (int i = fromX; i <= toX; i++) {
+            for (int j = fromY; j <= toY; j++) {
+                List<GraphPanel.Edge> cell = edgeCells.get(key(i, j));
+                if (cell == null) {
+                    continue;
+                }
+                for (GraphPanel.Edge edge : cell) {
+                    if (edge.containsPoint(x, y, threshold)) {
+                        return edge;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**Обходит все ячейки, через которые проходит отрезок ребра (алгоритм Amanatides-Woo).
+     */
+    private static void forEachCell(GraphPanel.Edge edge, CellAction action) {
+        int x1 = edge.v1.x, y1 = edge.v1.y, x2 = edge.v2.x, y2 = edge.v2.y;
+        int cx = Math.floorDiv(x1, CELL_SIZE), cy = Math.floorDiv(y1, CELL_SIZE);
+        int endX = Math.floorDiv(x2, CELL_SIZE), endY = Math.floorDiv(y2, CELL_SIZE);
+        int dx = x2 - x1, dy = y2 - y1;
+        int stepX = Integer.signum(dx), stepY = Integer.signum(dy);
+
+        // Параметр t (0..1) пересечения следующей вертикальной и горизонтальной границы ячейки
+        double tMaxX = dx == 0 ? Double.POSITIVE_INFINITY
+                : ((stepX > 0 ? (cx + 1) * CELL_SIZE : cx * CELL_SIZE) - x1) / (double) dx;
+        double tMaxY = dy == 0 ? Double.POSITIVE_INFINITY
+                : ((stepY > 0 ? (cy + 1) * CELL_SIZE : cy * CELL_SIZE) - y1) / (double) dy;
+        double tDeltaX = dx == 0 ? Double.POSITIVE_INFINITY : CELL_SIZE / (double) Math.abs(dx);
+        double tDeltaY = dy == 0 ? Double.POSITIVE_INFINITY : CELL_SIZE / (double) Math.abs(dy);
+
+        int steps = Math.abs(endX - cx) + Math.abs(endY - cy);
+        action.apply(key(cx, cy));
+        for (int i = 0; i < steps; i++) {
+            if (tMaxX < tMaxY) {
+                cx += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                cy += stepY;
+                tMaxY += tDeltaY;
+            }
+            action.apply(key(cx, cy));
+        }
+    }
+
+    private static <T> void removeFromCell(Map<Long, List<T>> cells, long cell, T item) {
+        List<T> list = cells.get(cell);
+        if (list == null) {
+            return;
+        }
+        list.remove(item);
+        if (list.isEmpty()) {
+            cells.remove(cell);
+        }
+    }
+
+    private static long cellOf(int x, int y) {
+        return key(Math.floorDiv(x, CELL_SIZE), Math.floorDiv(y, CELL_SIZE));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package src.logic;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**Алгоритм Борувки с параллельными раундами.
+ * В каждом раунде для каждой компоненты параллельно ищется самое легкое выходящее ребро,
+ * затем компоненты стягиваются по найденным ребрам через ConcurrentDisjointSet.
+ * Ребра сравниваются по ключу (вес, id), поэтому результат совпадает с Kruskal.
+ * Каждый раунд в журнале шагов отделяется вызовом StepLog.endRound().
+ */
+public class Boruvka implements MstAlgorithm {
+    private static final int GRAIN = 1 << 13;
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final Graph graph;
+    private final ForkJoinPool pool;
+    private final StepLog stepLog;
+    private long totalWeight;
+    private ProgressListener progress;
+
+    public Boruvka(Graph graph) {
+        this(graph, true);
+    }
+
+    public Boruvka(Graph graph, boolean recordSteps) {
+        this(graph, recordSteps, ForkJoinPool.commonPool());
+    }
+
+    public Boruvka(Graph graph, boolean recordSteps, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        this.stepLog = recordSteps ? new StepLog(graph) : null;
+    }
+
+    @Override
+    public int[] computeMST() {
+        long metric = MstMetrics.begin();
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        long examined = 0;
+        ConcurrentDisjointSet components = new ConcurrentDisjointSet(n);
+        AtomicLongArray cheapest = new AtomicLongArray(n);
+        int[] mst = new int[Math.max(n - 1, 0)];
+        AtomicInteger mstSize = new AtomicInteger();
+        totalWeight = 0;
+
+        // Петли никогда не войдут в остов
+        int[] active = new int[m];
+        int activeCount = 0;
+        for (int e = 0; e < m; e++) {
+            if (graph.src(e) != graph.dst(e)) {
+                active[activeCount++] = e;
+            }
+        }
+
+        while (activeCount > 0 && mstSize.get() < mst.length) {
+            final int[] edges = active;
+            final int count = activeCount;
+            examined += count;
+
+            // 1. Самое легкое ребро для каждой компоненты (индекс - корень компоненты)
+            ParallelBlocks.forRange(pool, 0, n, GRAIN, (from, to) -> {
+                for (int v = from; v < to; v++) {
+                    cheapest.set(v, NONE);
+                }
+            });
+            ParallelBlocks.forRange(pool, 0, count, GRAIN, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int e = edges[i];
+                    int ru = components.find(graph.src(e));
+                    int rv = components.find(graph.dst(e));
+                    if (ru != rv) {
+                        long key = ((long) graph.weight(e) << 32) | e;
+                        updateMin(cheapest, ru, key);
+                        updateMin(cheapest, rv, key);
+                    }
+                }
+            });
+
+            // 2. Стягивание: выбранные ребра образуют лес, поэтому каждое различное ребро объединит компоненты ровно один раз
+            int roundStart = mstSize.get();
+            ParallelBlocks.forRange(pool, 0, n, GRAIN, (from, to) -> {
+                for (int v = from; v < to; v++) {
+                    long key = cheapest.get(v);
+                    if (key != NONE) {
+                        int e = (int) key;
+                        if (components.union(graph.src(e), graph.dst(e))) {
+                            mst[mstSize.getAndIncrement()] = e;
+                        }
+                    }
+                }
+            });
+            int roundEnd = mstSize.get();
+            if (roundEnd == roundStart) {
+                break; // Выходящих ребер не осталось: граф несвязный
+            }
+
+            // Порядок внутри раунда зависит от потоков - упорядочиваем по (вес, id) для воспроизводимости
+            sortByKey(mst, roundStart, roundEnd);
+            for (int i = roundStart; i < roundEnd; i++) {
+                totalWeight += graph.weight(mst[i]);
+                if (stepLog != null) {
+                    stepLog.append(mst[i], true);
+                }
+            }
+            if (stepLog != null) {
+                stepLog.endRound();
+            }
+
+            // 3. Оставляем только ребра между разными компонентами
+            active = pool.submit(() -> Arrays.stream(edges, 0, count).parallel()
+                    .filter(e -> !components.connected(graph.src(e), graph.dst(e)))
+                    .toArray()).join();
+            activeCount = active.length;
+            if (progress != null) {
+                // Ребра, выброшенные из активного списка, больше не рассматриваются
+                progress.onProgress(m - activeCount, m, mstSize.get());
+            }
+        }
+        MstMetrics.end(MstMetrics.Phase.MST, metric);
+        // Отброшены петли и ребра, оказавшиеся внутри компонент
+        MstMetrics.countEdges(examined, mstSize.get(), m - activeCount - mstSize.get());
+        if (stepLog != null) {
+            MstMetrics.recordStepHistory(stepLog);
+        }
+        return Arrays.copyOf(mst, mstSize.get());
+    }
+
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        this.progress = listener;
+    }
+
+    private static void updateMin(AtomicLongArray cheapest, int index, long key) {
+        long current = cheapest.get(index);
+        while (key < current && !cheapest.compareAndSet(index, current, key)) {
+            current = cheapest.get(index);
+        }
+    }
+
+    private void sortByKey(int[] edges, int from, int to) {
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            keys[i - from] = ((long) graph.weight(edges[i]) << 32) | edges[i];
+        }
+        EdgeSorter.sort(keys, 0, keys.length);
+        for (int i = from; i < to; i++) {
+            edges[i] = (int) keys[i - from];
+        }
+    }
+
+    @Override
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public StepLog getStepLog() {
+        return stepLog;
+    }
+}
\ No newline at end of file
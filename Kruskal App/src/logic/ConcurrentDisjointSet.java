@@ -0,0 +1,71 @@
+package src.logic;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**Неблокирующая система непересекающихся множеств для одновременного использования из нескольких потоков.
+ * Корень с большим номером всегда подвешивается к корню с меньшим, поэтому циклы не возникают;
+ * указатели родителей меняются только через compareAndSet.
+ */
+public class ConcurrentDisjointSet {
+    private final AtomicIntegerArray parent;
+
+    public ConcurrentDisjointSet(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    /**Находит корень множества, укорачивая путь вдвое (каждая вершина переподвешивается к деду).
+     */
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int grand = parent.get(p);
+            if (grand != p) {
+                parent.compareAndSet(x, p, grand);
+            }
+            x = grand;
+        }
+    }
+
+    /**Объединяет множества, содержащие a и b.
+     * @return Возвращает true если этот вызов объединил два разных множества.
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return false;
+            }
+            int high = Math.max(ra, rb);
+            int low = Math.min(ra, rb);
+            if (parent.compareAndSet(high, high, low)) {
+                return true;
+            }
+            // Корень успели подвесить в другом потоке - повторяем с новыми корнями
+        }
+    }
+
+    public boolean connected(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return true;
+            }
+            // ra мог перестать быть корнем, пока искали rb
+            if (parent.get(ra) == ra) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return parent.length();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package src.logic;
+
+/**Система непересекающихся множеств (union-find) на примитивных массивах.
+ * Объединение по рангу и сжатие путей дают почти константное время на операцию.
+ */
+public class DisjointSet {
+    private final int[] parent;
+    private final byte[] rank;
+    private int components;
+
+    /**Создает n одноэлементных множеств с элементами 0..n-1.
+     * @param n количество элементов.
+     */
+    public DisjointSet(int n) {
+        parent = new int[n];
+        rank = new byte[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        components = n;
+    }
+
+    /**Находит представителя множества, попутно сжимая путь.
+     * @param x элемент.
+     * @return Корень множества, в котором лежит x.
+     */
+    public int find(int x) {
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // Второй проход: подвешиваем все вершины пути прямо к корню
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /**Находит представителя множества без изменения структуры.
+     * Безопасно вызывать из нескольких потоков, пока никто не выполняет union и find.
+     */
+    public int root(int x) {
+        while (parent[x] != x) {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**Объединяет множества, содержащие a и b.
+     * @return Возвращает true если множества были разными. Иначе false (ребро замкнуло бы цикл).
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (rank[ra] < rank[rb]) {
+            parent[ra] = rb;
+        } else if (rank[ra] > rank[rb]) {
+            parent[rb] = ra;
+        } else {
+            parent[rb] = ra;
+            rank[ra]++;
+        }
+        components--;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**Возвращает текущее количество множеств.
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    public int size() {
+        return parent.length;
+    }
+}
\ No newline at end of file
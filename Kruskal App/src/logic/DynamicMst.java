@@ -0,0 +1,468 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Минимальный остовный лес, который поддерживается при добавлении и удалении вершин и ребер
+ * без пересчета с нуля.
+ * Остов хранится в link-cut дереве (Sleator-Tarjan): каждая вершина и каждое ребро - узел дерева,
+ * узел ребра хранит ключ (вес, id), и максимум на пути между вершинами ищется за O(log n) амортизированно.
+ * - Добавление ребра (u, v): если u и v в разных деревьях, ребро связывает их. Иначе оно замыкает цикл,
+ *   и самое тяжелое ребро цикла заменяется новым, если новое легче.
+ * - Удаление ребра остова: дерево распадается на два, и ищется самое легкое ребро вне остова между ними.
+ *   Обе части обходятся по ребрам остова поочередно, пока одна не закончится; ребра-кандидаты
+ *   перебираются только у вершин меньшей части.
+ * Добавление стоит O(log n) амортизированно. Удаление ребра остова не полилогарифмическое:
+ * O(размер меньшей части + сумма степеней ее вершин), в худшем случае O(m) - например, у звезды,
+ * где меньшая часть - центр со всеми его ребрами. Удаление ребра вне остова - O(1).
+ * Ребра сравниваются по ключу (вес, id), как в Kruskal, поэтому остов совпадает с пересчитанным с нуля.
+ */
+public class DynamicMst {
+    private static final long NO_KEY = Long.MIN_VALUE; // Ключ узлов-вершин: никогда не максимум на пути
+    private static final byte REMOVED = 0, TREE = 1, NON_TREE = 2;
+
+    // Узлы link-cut дерева, 0 - отсутствие узла
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] parent = new int[16];
+    private boolean[] flip = new boolean[16];
+    private long[] key = new long[16];
+    private int[] best = new int[16]; // Узел с наибольшим ключом в поддереве splay
+    private int nodeCount = 1;
+    private int[] stack = new int[16];
+
+    // Вершины
+    private int[] vertexNode = new int[16];
+    private int[] firstSlot = new int[16]; // Список инцидентных ребер: слот 2e - конец src, 2e+1 - конец dst
+    private boolean[] vertexAlive = new boolean[16];
+    private int vertexCount;
+
+    // Ребра
+    private int[] src = new int[16];
+    private int[] dst = new int[16];
+    private int[] weight = new int[16];
+    private int[] edgeNode = new int[16];
+    private byte[] state = new byte[16];
+    private int[] nextSlot = new int[32];
+    private int edgeCount;
+
+    // Поочередный обход двух частей дерева после удаления ребра остова
+    private final TreeSearch searchA = new TreeSearch();
+    private final TreeSearch searchB = new TreeSearch();
+    private int[] visited = new int[16]; // Метка обхода вершины: 2 * stamp для части A, 2 * stamp + 1 для B
+    private int stamp;
+
+    // Ребра остова списком: treeEdges[treePosition[e]] == e, удаление переставляет последнее ребро на место
+    private int[] treeEdges = new int[16];
+    private int[] treePosition = new int[16];
+    private int treeEdgeCount;
+    private long totalWeight;
+
+    /**Добавляет изолированную вершину.
+     * @return Номер вершины.
+     */
+    public int addVertex() {
+        if (vertexCount == vertexNode.length) {
+            int capacity = vertexCount * 2;
+            vertexNode = Arrays.copyOf(vertexNode, capacity);
+            firstSlot = Arrays.copyOf(firstSlot, capacity);
+            vertexAlive = Arrays.copyOf(vertexAlive, capacity);
+            visited = Arrays.copyOf(visited, capacity);
+        }
+        int v = vertexCount++;
+        vertexNode[v] = newNode(NO_KEY);
+        firstSlot[v] = -1;
+        vertexAlive[v] = true;
+        return v;
+    }
+
+    /**Добавляет ребро и перестраивает остов.
+     * @return Номер ребра.
+     */
+    public int addEdge(int u, int v, int w) {
+        checkVertex(u);
+        checkVertex(v);
+        if (edgeCount == src.length) {
+            int capacity = edgeCount * 2;
+            src = Arrays.copyOf(src, capacity);
+            dst = Arrays.copyOf(dst, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            edgeNode = Arrays.copyOf(edgeNode, capacity);
+            state = Arrays.copyOf(state, capacity);
+            treePosition = Arrays.copyOf(treePosition, capacity);
+            nextSlot = Arrays.copyOf(nextSlot, capacity * 2);
+        }
+        int e = edgeCount++;
+        src[e] = u;
+        dst[e] = v;
+        weight[e] = w;
+        edgeNode[e] = newNode(edgeKey(e));
+        nextSlot[2 * e] = firstSlot[u];
+        firstSlot[u] = 2 * e;
+        nextSlot[2 * e + 1] = firstSlot[v];
+        firstSlot[v] = 2 * e + 1;
+
+        if (u == v) {
+            state[e] = NON_TREE; // Петля не войдет в остов и не может быть заменой
+            return e;
+        }
+        int nu = vertexNode[u], nv = vertexNode[v];
+        if (findRoot(nu) != findRoot(nv)) {
+            linkTree(e);
+            return e;
+        }
+        // Ребро замыкает цикл: сравниваем с самым тяжелым ребром на пути u - v
+        makeRoot(nu);
+        access(nv);
+        int heaviest = best[nv];
+        if (key[heaviest] > edgeKey(e)) {
+            int old = edgeOf(heaviest);
+            cutTree(old);
+            state[old] = NON_TREE;
+            linkTree(e);
+        } else {
+            state[e] = NON_TREE;
+        }
+        return e;
+    }
+
+    /**Удаляет ребро. Если оно было в остове, ищется ребро замены.
+     */
+    public void removeEdge(int e) {
+        if (e < 0 || e >= edgeCount || state[e] == REMOVED) {
+            throw new IllegalArgumentException("Нет ребра " + e);
+        }
+        if (state[e] == NON_TREE) {
+            state[e] = REMOVED;
+            return;
+        }
+        cutTree(e);
+        state[e] = REMOVED;
+        int replacement = findReplacement(src[e], dst[e]);
+        if (replacement != -1) {
+            linkTree(replacement);
+        }
+    }
+
+    /**Ищет самое легкое ребро вне остова между деревьями вершин a и b.
+     * Деревья обходятся по одному ребру поочередно, поэтому работа пропорциональна меньшему из них
+     * вместе со степенями его вершин.
+     * @return Номер ребра или -1, если деревья больше ничем не связаны.
+     */
+    private int findReplacement(int a, int b) {
+        if (stamp == Integer.MAX_VALUE / 2) {
+            Arrays.fill(visited, 0);
+            stamp = 0;
+        }
+        stamp++;
+        searchA.start(a, 2 * stamp);
+        searchB.start(b, 2 * stamp + 1);
+        TreeSearch smaller;
+        while (true) {
+            if (!searchA.step()) {
+                smaller = searchA;
+                break;
+            }
+            if (!searchB.step()) {
+                smaller = searchB;
+                break;
+            }
+        }
+
+        // Ребро замены выходит из меньшей части; заодно выкидываем из списков удаленные ребра
+        int found = -1;
+        for (int i = 0; i < smaller.tail; i++) {
+            int v = smaller.queue[i];
+            int prev = -1;
+            for (int slot = firstSlot[v]; slot != -1; slot = nextSlot[slot]) {
+                int e = slot / 2;
+                if (state[e] == REMOVED) {
+                    if (prev == -1) {
+                        firstSlot[v] = nextSlot[slot];
+                    } else {
+                        nextSlot[prev] = nextSlot[slot];
+                    }
+                    continue;
+                }
+                prev = slot;
+                int other = (slot & 1) == 0 ? dst[e] : src[e];
+                if (state[e] == NON_TREE && visited[other] != smaller.mark
+                        && (found == -1 || edgeKey(e) < edgeKey(found))) {
+                    found = e;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**Удаляет вершину вместе со всеми инцидентными ей ребрами.
+     */
+    public void removeVertex(int v) {
+        checkVertex(v);
+        for (int slot = firstSlot[v]; slot != -1; slot = nextSlot[slot]) {
+            int e = slot / 2;
+            if (state[e] != REMOVED) {
+                removeEdge(e);
+            }
+        }
+        firstSlot[v] = -1;
+        vertexAlive[v] = false;
+    }
+
+    /**Находится ли ребро в текущем остове.
+     */
+    public boolean isTreeEdge(int e) {
+        return state[e] == TREE;
+    }
+
+    /**Связаны ли вершины u и v ребрами остова.
+     */
+    public boolean connected(int u, int v) {
+        return findRoot(vertexNode[u]) == findRoot(vertexNode[v]);
+    }
+
+    /**Возвращает идентификаторы ребер текущего остова (в произвольном порядке).
+     */
+    public int[] getTreeEdges() {
+        return Arrays.copyOf(treeEdges, treeEdgeCount);
+    }
+
+    public int getTreeEdgeCount() {
+        return treeEdgeCount;
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= vertexCount || !vertexAlive[v]) {
+            throw new IllegalArgumentException("Нет вершины " + v);
+        }
+    }
+
+    private long edgeKey(int e) {
+        return ((long) weight[e] << 32) | e;
+    }
+
+    private int edgeOf(int node) {
+        return (int) key[node];
+    }
+
+    // Ребро остова - узел между узлами своих концов: u - e - v
+    private void linkTree(int e) {
+        int node = edgeNode[e];
+        makeRoot(node);
+        parent[node] = vertexNode[src[e]];
+        makeRoot(vertexNode[dst[e]]);
+        parent[vertexNode[dst[e]]] = node;
+        state[e] = TREE;
+        if (treeEdgeCount == treeEdges.length) {
+            treeEdges = Arrays.copyOf(treeEdges, treeEdgeCount * 2);
+        }
+        treePosition[e] = treeEdgeCount;
+        treeEdges[treeEdgeCount++] = e;
+        totalWeight += weight[e];
+    }
+
+    private void cutTree(int e) {
+        int node = edgeNode[e];
+        cut(node, vertexNode[src[e]]);
+        cut(node, vertexNode[dst[e]]);
+        int last = treeEdges[--treeEdgeCount];
+        treeEdges[treePosition[e]] = last;
+        treePosition[last] = treePosition[e];
+        totalWeight -= weight[e];
+    }
+
+    // Обход в ширину по ребрам остова, который можно продвигать по одному ребру
+    private class TreeSearch {
+        int[] queue = new int[16];
+        int head, tail;
+        int mark;
+        int cursor; // Следующий слот в списке ребер вершины queue[head - 1], -1 если список пройден
+
+        void start(int v, int mark) {
+            if (queue.length < vertexCount) {
+                queue = new int[vertexNode.length];
+            }
+            this.mark = mark;
+            queue[0] = v;
+            visited[v] = mark;
+            head = 0;
+            tail = 1;
+            cursor = -1;
+        }
+
+        /**Просматривает одно ребро.
+         * @return false, если часть дерева обойдена полностью.
+         */
+        boolean step() {
+            while (cursor == -1) {
+                if (head == tail) {
+                    return false;
+                }
+                cursor = firstSlot[queue[head++]];
+            }
+            int slot = cursor;
+            cursor = nextSlot[slot];
+            int e = slot / 2;
+            if (state[e] == TREE) {
+                int other = (slot & 1) == 0 ? dst[e] : src[e];
+                if (visited[other] != mark) {
+                    visited[other] = mark;
+                    queue[tail++] = other;
+                }
+            }
+            return true;
+        }
+    }
+
+    // ---- Link-cut дерево ----
+
+    private int newNode(long nodeKey) {
+        if (nodeCount == left.length) {
+            int capacity = nodeCount * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            flip = Arrays.copyOf(flip, capacity);
+            key = Arrays.copyOf(key, capacity);
+            best = Arrays.copyOf(best, capacity);
+            stack = new int[capacity];
+        }
+        int x = nodeCount++;
+        key[x] = nodeKey;
+        best[x] = x;
+        return x;
+    }
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == 0 || (left[p] != x && right[p] != x);
+    }
+
+    private void pull(int x) {
+        int b = x;
+        if (left[x] != 0 && key[best[left[x]]] > key[b]) {
+            b = best[left[x]];
+        }
+        if (right[x] != 0 && key[best[right[x]]] > key[b]) {
+            b = best[right[x]];
+        }
+        best[x] = b;
+    }
+
+    private void reverse(int x) {
+        int tmp = left[x];
+        left[x] = right[x];
+        right[x] = tmp;
+        flip[x] = !flip[x];
+    }
+
+    private void push(int x) {
+        if (flip[x]) {
+            if (left[x] != 0) {
+                reverse(left[x]);
+            }
+            if (right[x] != 0) {
+                reverse(right[x]);
+            }
+            flip[x] = false;
+        }
+    }
+
+    private void rotate(int x) {
+        int p = parent[x];
+        int g = parent[p];
+        if (!isSplayRoot(p)) {
+            if (left[g] == p) {
+                left[g] = x;
+            } else {
+                right[g] = x;
+            }
+        }
+        parent[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != 0) {
+                parent[right[x]] = p;
+            }
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != 0) {
+                parent[left[x]] = p;
+            }
+            left[x] = p;
+        }
+        parent[p] = x;
+        pull(p);
+        pull(x);
+    }
+
+    private void splay(int x) {
+        // Сначала проталкиваем отложенные развороты от корня splay-дерева до x
+        int top = 0;
+        stack[top++] = x;
+        for (int y = x; !isSplayRoot(y); y = parent[y]) {
+            stack[top++] = parent[y];
+        }
+        while (top > 0) {
+            push(stack[--top]);
+        }
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                rotate((left[g] == p) == (left[p] == x) ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void access(int x) {
+        int last = 0;
+        for (int y = x; y != 0; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            pull(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    private void makeRoot(int x) {
+        access(x);
+        reverse(x);
+    }
+
+    private int findRoot(int x) {
+        access(x);
+        while (true) {
+            push(x);
+            if (left[x] == 0) {
+                break;
+            }
+            x = left[x];
+        }
+        splay(x);
+        return x;
+    }
+
+    // Узлы x и y соединены ребром дерева
+    private void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        left[y] = 0;
+        parent[x] = 0;
+        pull(y);
+    }
+}
\ No newline at end of file
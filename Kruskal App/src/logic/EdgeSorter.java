@@ -0,0 +1,123 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Сортировка ключей ребер ((long) вес << 32) | id без сравнений, за O(E).
+ * - Веса из небольшого диапазона (как у генератора, 1..20) сортируются подсчетом за один проход.
+ * - Иначе поразрядная сортировка LSD по байтам; байты, одинаковые у всех ключей, пропускаются.
+ * Если id во входе уже идут по возрастанию (так ключи строят все алгоритмы), достаточно устойчиво
+ * отсортировать по весу, и младшие 32 бита не сортируются вовсе. Результат всегда совпадает с Arrays.sort.
+ */
+final class EdgeSorter {
+    // Меньшие диапазоны быстрее сортирует Arrays.sort
+    private static final int RADIX_THRESHOLD = 1 << 10;
+    // Сортировка подсчетом используется, пока массив счетчиков не больше этого или числа ключей
+    private static final int MIN_COUNTING_RANGE = 256;
+
+    private EdgeSorter() {
+    }
+
+    /**Сортирует keys[from..to) по возрастанию.
+     */
+    static void sort(long[] keys, int from, int to) {
+        sort(keys, from, to, null, 0);
+    }
+
+    /**Сортирует keys[from..to) по возрастанию, используя buffer[bufferFrom..bufferFrom + (to - from))
+     * как рабочую память, чтобы не выделять ее на каждый вызов.
+     * @param buffer рабочий массив или null, тогда он выделяется при необходимости.
+     */
+    static void sort(long[] keys, int from, int to, long[] buffer, int bufferFrom) {
+        int n = to - from;
+        if (n < RADIX_THRESHOLD) {
+            Arrays.sort(keys, from, to);
+            return;
+        }
+        if (buffer == null) {
+            buffer = new long[n];
+            bufferFrom = 0;
+        }
+
+        // Один проход: диапазон весов, упорядочены ли id, какие биты ключей различаются
+        long first = keys[from];
+        int minWeight = (int) (first >> 32);
+        int maxWeight = minWeight;
+        boolean idsAscending = true;
+        int previousId = (int) first;
+        long differentBits = 0;
+        for (int i = from + 1; i < to; i++) {
+            long key = keys[i];
+            int w = (int) (key >> 32);
+            if (w < minWeight) {
+                minWeight = w;
+            } else if (w > maxWeight) {
+                maxWeight = w;
+            }
+            idsAscending &= (int) key > previousId;
+            previousId = (int) key;
+            differentBits |= key ^ first;
+        }
+
+        long range = (long) maxWeight - minWeight + 1;
+        if (idsAscending && range <= Math.max(MIN_COUNTING_RANGE, n)) {
+            countingSort(keys, from, to, buffer, bufferFrom, minWeight, (int) range);
+        } else {
+            radixSort(keys, from, to, buffer, bufferFrom, idsAscending ? 4 : 0, differentBits);
+        }
+    }
+
+    // Устойчивая сортировка подсчетом по весу
+    private static void countingSort(long[] keys, int from, int to, long[] buffer, int bufferFrom,
+                                     int minWeight, int range) {
+        int[] start = new int[range + 1];
+        for (int i = from; i < to; i++) {
+            start[(int) (keys[i] >> 32) - minWeight + 1]++;
+        }
+        for (int w = 1; w <= range; w++) {
+            start[w] += start[w - 1];
+        }
+        for (int i = from; i < to; i++) {
+            buffer[bufferFrom + start[(int) (keys[i] >> 32) - minWeight]++] = keys[i];
+        }
+        System.arraycopy(buffer, bufferFrom, keys, from, to - from);
+    }
+
+    // Поразрядная сортировка по байтам с firstByte по 7-й; старший байт сравнивается со знаком
+    private static void radixSort(long[] keys, int from, int to, long[] buffer, int bufferFrom,
+                                  int firstByte, long differentBits) {
+        int n = to - from;
+        long[] source = keys, target = buffer;
+        int sourceFrom = from, targetFrom = bufferFrom;
+        int[] count = new int[256];
+        for (int b = firstByte; b < 8; b++) {
+            int shift = 8 * b;
+            if (((differentBits >>> shift) & 0xFF) == 0) {
+                continue; // Во всех ключах этот байт одинаков
+            }
+            int signFlip = b == 7 ? 0x80 : 0;
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i++) {
+                count[(int) (source[sourceFrom + i] >>> shift) & 0xFF ^ signFlip]++;
+            }
+            int sum = 0;
+            for (int d = 0; d < 256; d++) {
+                int c = count[d];
+                count[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                long key = source[sourceFrom + i];
+                target[targetFrom + count[(int) (key >>> shift) & 0xFF ^ signFlip]++] = key;
+            }
+            long[] swap = source;
+            source = target;
+            target = swap;
+            int swapFrom = sourceFrom;
+            sourceFrom = targetFrom;
+            targetFrom = swapFrom;
+        }
+        if (source != keys) {
+            System.arraycopy(source, sourceFrom, keys, from, n);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,353 @@
+package src.logic;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**Алгоритм Краскала во внешней памяти для графов, ребра которых не помещаются в куче.
+ * Ребра читаются из потока троек int (src, dst, weight) в little-endian, как в файлах KGRF.
+ * Временные отрезки пишутся через DataOutput и наружу не попадают.
+ * 1. Формирование отрезков: читаем не больше runEdges ребер, сортируем и пишем во временный файл.
+ * 2. Слияние: отрезки сливаются потоком, ребра сразу подаются в систему непересекающихся множеств.
+ * В памяти держится только O(V) на вершины и буфер одного отрезка.
+ */
+public class ExternalKruskal {
+    private static final int EDGE_BYTES = 12;
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final int vertexCount;
+    private final int runEdges;
+    private final File tempDir;
+
+    private long totalWeight;
+    private int[] mstSrc = new int[0];
+    private int[] mstDst = new int[0];
+    private int[] mstWeight = new int[0];
+    private int mstSize;
+    private final List<PhaseStats> phases = new ArrayList<>();
+
+    /**Статистика одной фазы: время, прочитанные и записанные байты, пик кучи.
+     */
+    public record PhaseStats(String name, long nanos, long bytesRead, long bytesWritten, long peakHeapBytes) {
+        @Override
+        public String toString() {
+            return String.format("%-6s %8.1f мс, прочитано %,d Б, записано %,d Б, пик кучи %,d Б",
+                    name, nanos / 1e6, bytesRead, bytesWritten, peakHeapBytes);
+        }
+    }
+
+    /**
+     * @param vertexCount количество вершин (номера от 0 до vertexCount-1).
+     * @param runEdges сколько ребер сортируется в памяти за раз.
+     * @param tempDir каталог для временных отрезков, null - системный.
+     */
+    public ExternalKruskal(int vertexCount, int runEdges, File tempDir) {
+        if (runEdges < 1) {
+            throw new IllegalArgumentException("Размер отрезка должен быть положительным: " + runEdges);
+        }
+        this.vertexCount = vertexCount;
+        this.runEdges = runEdges;
+        this.tempDir = tempDir;
+    }
+
+    /**Строит MST по файлу ребер.
+     * @param edgeFile файл с тройками int (src, dst, weight) в little-endian.
+     * @return Количество ребер в MST.
+     */
+    public int computeMST(File edgeFile) throws IOException {
+        try (InputStream in = new FileInputStream(edgeFile)) {
+            return computeMST(in);
+        }
+    }
+
+    /**Строит MST по потоку ребер. Поток не закрывается.
+     * @return Количество ребер в MST.
+     */
+    public int computeMST(InputStream edgeStream) throws IOException {
+        phases.clear();
+        List<File> runs = new ArrayList<>();
+        try {
+            createRuns(edgeStream, runs);
+            mergeRuns(runs);
+        } finally {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+        return mstSize;
+    }
+
+    /**Фаза 1: режем вход на отрезки, сортируем каждый в памяти по (вес, порядок во входе).
+     */
+    private void createRuns(InputStream edgeStream, List<File> runs) throws IOException {
+        resetPeakHeap();
+        long start = System.nanoTime();
+        CountingInputStream counted = new CountingInputStream(new BufferedInputStream(edgeStream, IO_BUFFER));
+        DataInputStream in = new DataInputStream(counted);
+        long written = 0;
+        long record = 0;
+
+        int[] src = new int[runEdges];
+        int[] dst = new int[runEdges];
+        int[] weight = new int[runEdges];
+        long[] keys = new long[runEdges];
+        long[] sortBuffer = new long[runEdges];
+
+        while (true) {
+            int count = 0;
+            while (count < runEdges) {
+                int u;
+                try {
+                    u = Integer.reverseBytes(in.readInt());
+                } catch (EOFException e) {
+                    break;
+                }
+                src[count] = u;
+                dst[count] = Integer.reverseBytes(in.readInt());
+                weight[count] = Integer.reverseBytes(in.readInt());
+                if (u < 0 || u >= vertexCount || dst[count] < 0 || dst[count] >= vertexCount) {
+                    throw new IOException("Ребро " + record + " (" + u + ", " + dst[count]
+                            + ") ссылается на вершину вне диапазона 0.." + (vertexCount - 1));
+                }
+                record++;
+                keys[count] = ((long) weight[count] << 32) | count;
+                count++;
+            }
+            if (count == 0) {
+                break;
+            }
+            EdgeSorter.sort(keys, 0, count, sortBuffer, 0);
+
+            File run = File.createTempFile("kruskal-run", ".bin", tempDir);
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER))) {
+                for (int i = 0; i < count; i++) {
+                    int e = (int) keys[i];
+                    out.writeInt(src[e]);
+                    out.writeInt(dst[e]);
+                    out.writeInt(weight[e]);
+                }
+            }
+            written += (long) count * EDGE_BYTES;
+            if (count < runEdges) {
+                break;
+            }
+        }
+        phases.add(new PhaseStats("sort", System.nanoTime() - start, counted.getCount(), written, peakHeap()));
+        MstMetrics.add(MstMetrics.Phase.SORT, System.nanoTime() - start);
+    }
+
+    /**Фаза 2: k-путевое слияние отрезков кучей и проверка ребер через union-find.
+     * При равных весах раньше идет ребро из более раннего отрезка, то есть порядок входа сохраняется.
+     */
+    private void mergeRuns(List<File> runs) throws IOException {
+        resetPeakHeap();
+        long start = System.nanoTime();
+        int k = runs.size();
+        int bufferSize = (int) Math.max(4096, Math.min(IO_BUFFER, (long) runEdges * EDGE_BYTES / Math.max(k, 1)));
+
+        CountingInputStream[] counters = new CountingInputStream[k];
+        DataInputStream[] readers = new DataInputStream[k];
+        int[] headSrc = new int[k];
+        int[] headDst = new int[k];
+        int[] headWeight = new int[k];
+        long[] remaining = new long[k];
+        int[] heap = new int[k];
+        int heapSize = 0;
+        long examined = 0;
+
+        mstSrc = new int[Math.max(vertexCount - 1, 0)];
+        mstDst = new int[mstSrc.length];
+        mstWeight = new int[mstSrc.length];
+        mstSize = 0;
+        totalWeight = 0;
+        DisjointSet components = new DisjointSet(vertexCount);
+
+        try {
+            for (int r = 0; r < k; r++) {
+                remaining[r] = runs.get(r).length() / EDGE_BYTES;
+                counters[r] = new CountingInputStream(new BufferedInputStream(new FileInputStream(runs.get(r)), bufferSize));
+                readers[r] = new DataInputStream(counters[r]);
+                if (advance(r, readers, remaining, headSrc, headDst, headWeight)) {
+                    heap[heapSize++] = r;
+                    siftUp(heap, heapSize - 1, headWeight);
+                }
+            }
+
+            while (heapSize > 0 && mstSize < vertexCount - 1) {
+                examined++;
+                int r = heap[0];
+                if (components.union(headSrc[r], headDst[r])) {
+                    mstSrc[mstSize] = headSrc[r];
+                    mstDst[mstSize] = headDst[r];
+                    mstWeight[mstSize] = headWeight[r];
+                    totalWeight += headWeight[r];
+                    mstSize++;
+                }
+                if (advance(r, readers, remaining, headSrc, headDst, headWeight)) {
+                    siftDown(heap, heapSize, 0, headWeight);
+                } else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(heap, heapSize, 0, headWeight);
+                }
+            }
+        } finally {
+            for (DataInputStream reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+
+        long read = 0;
+        for (CountingInputStream counter : counters) {
+            read += counter.getCount();
+        }
+        phases.add(new PhaseStats("merge", System.nanoTime() - start, read, 0, peakHeap()));
+        MstMetrics.add(MstMetrics.Phase.MST, System.nanoTime() - start);
+        MstMetrics.countEdges(examined, mstSize, examined - mstSize);
+    }
+
+    private static boolean advance(int r, DataInputStream[] readers, long[] remaining,
+                                   int[] headSrc, int[] headDst, int[] headWeight) throws IOException {
+        if (remaining[r] == 0) {
+            return false;
+        }
+        remaining[r]--;
+        headSrc[r] = readers[r].readInt();
+        headDst[r] = readers[r].readInt();
+        headWeight[r] = readers[r].readInt();
+        return true;
+    }
+
+    // Бинарная куча номеров отрезков по ключу (вес головы, номер отрезка)
+
+    private static boolean less(int a, int b, int[] headWeight) {
+        return headWeight[a] != headWeight[b] ? headWeight[a] < headWeight[b] : a < b;
+    }
+
+    private static void siftUp(int[] heap, int i, int[] headWeight) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(heap[i], heap[parent], headWeight)) {
+                break;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int i, int[] headWeight) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int child = left + 1 < size && less(heap[left + 1], heap[left], headWeight) ? left + 1 : left;
+            if (!less(heap[child], heap[i], headWeight)) {
+                break;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[child];
+            heap[child] = tmp;
+            i = child;
+        }
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    public int getMstSize() {
+        return mstSize;
+    }
+
+    public int mstSrc(int i) {
+        return mstSrc[i];
+    }
+
+    public int mstDst(int i) {
+        return mstDst[i];
+    }
+
+    public int mstWeight(int i) {
+        return mstWeight[i];
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public List<PhaseStats> getPhases() {
+        return phases;
+    }
+
+    /**Текстовый отчет по фазам последнего запуска.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (PhaseStats phase : phases) {
+            report.append(phase).append("\n");
+        }
+        report.append("Ребер в MST: ").append(mstSize).append(", суммарный вес: ").append(totalWeight).append("\n");
+        return report.toString();
+    }
+
+    // Поток, считающий прочитанные байты
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,336 @@
+package src.logic;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**Силовая укладка графа (Фрюхтерман - Рейнгольд) с приближением Барнса - Хата для отталкивания.
+ * За итерацию:
+ * 1. Строится квадродерево по текущим координатам, в каждом узле - число вершин и их центр масс.
+ * 2. Для каждой вершины параллельно считается смещение: отталкивание k^2/d от всех вершин,
+ *    где далекий узел (размер/расстояние < THETA) заменяется своим центром масс, и притяжение d^2/k вдоль ребер.
+ *    Итерация стоит O(n log n + m) вместо O(n^2).
+ * 3. Вершины сдвигаются не дальше текущей температуры, температура убывает каждую итерацию.
+ * Итерации выполняет один поток; координаты для показа публикуются снимком после каждой итерации.
+ */
+public class ForceLayout {
+    private static final double THETA = 0.9;
+    private static final double COOLING = 0.96;
+    private static final double MIN_DISTANCE = 0.01;
+    private static final double GOLDEN_ANGLE = 2.399963229728653;
+    private static final int MAX_DEPTH = 32;
+    // Узел делится, пока в нем больше стольких вершин
+    private static final int LEAF_SIZE = 8;
+    private static final int ELEMENT_GRAIN = 1 << 10;
+
+    private final int n;
+    private final double[] x;
+    private final double[] y;
+    private final double[] dispX;
+    private final double[] dispY;
+    // Списки смежности в сжатом виде: соседи вершины v - neighbors[offsets[v]..offsets[v+1])
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final double k;
+    private final int maxIterations;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private double temperature;
+    private int iteration;
+
+    // Квадродерево в массивах; дети узла идут подряд с nodeChild, -1 у листа
+    private int[] order;
+    private int[] orderBuffer;
+    private int nodeCount;
+    private int[] nodeChild = new int[0];
+    private int[] nodeChildCount = new int[0];
+    private int[] nodeFrom = new int[0];
+    private int[] nodeTo = new int[0];
+    private double[] nodeSize = new double[0];
+    private double[] nodeX = new double[0];
+    private double[] nodeY = new double[0];
+
+    // Последний опубликованный снимок координат
+    private final double[] shownX;
+    private final double[] shownY;
+    private long frame;
+
+    /**
+     * @param graph граф, номера вершин которого совпадают с индексами массивов координат.
+     * @param x начальные абсциссы вершин, не изменяются.
+     * @param y начальные ординаты вершин, не изменяются.
+     * @param width ширина области укладки, задает идеальную длину ребра вместе с height.
+     * @param height высота области укладки.
+     * @param maxIterations сколько итераций выполнить до остановки.
+     */
+    public ForceLayout(Graph graph, double[] x, double[] y, double width, double height, int maxIterations) {
+        this.n = graph.getVertexCount();
+        if (x.length < n || y.length < n) {
+            throw new IllegalArgumentException("Координат меньше, чем вершин: " + Math.min(x.length, y.length));
+        }
+        this.x = Arrays.copyOf(x, n);
+        this.y = Arrays.copyOf(y, n);
+        this.dispX = new double[n];
+        this.dispY = new double[n];
+        this.shownX = Arrays.copyOf(x, n);
+        this.shownY = Arrays.copyOf(y, n);
+        this.order = new int[n];
+        this.orderBuffer = new int[n];
+        this.maxIterations = maxIterations;
+
+        int m = graph.getEdgeCount();
+        offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[graph.src(e) + 1]++;
+            offsets[graph.dst(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        neighbors = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            int u = graph.src(e), v = graph.dst(e);
+            neighbors[fill[u]++] = v;
+            neighbors[fill[v]++] = u;
+        }
+
+        double area = Math.max(width * height, 1);
+        k = Math.sqrt(area / Math.max(n, 1));
+        temperature = Math.max(width, height) / 10;
+    }
+
+    /**Задает пул потоков для расчета сил.
+     */
+    public ForceLayout setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**Выполняет одну итерацию и публикует новые координаты.
+     * @return true, если укладка еще не закончена.
+     */
+    public boolean iterate() {
+        if (isFinished()) {
+            return false;
+        }
+        buildTree();
+        ParallelBlocks.forRange(pool, 0, n, ELEMENT_GRAIN, this::computeDisplacement);
+        double t = temperature;
+        ParallelBlocks.forRange(pool, 0, n, ELEMENT_GRAIN, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                double length = Math.sqrt(dispX[v] * dispX[v] + dispY[v] * dispY[v]);
+                if (length > 0) {
+                    double limited = Math.min(length, t);
+                    x[v] += dispX[v] / length * limited;
+                    y[v] += dispY[v] / length * limited;
+                }
+            }
+        });
+        temperature *= COOLING;
+        iteration++;
+        synchronized (this) {
+            System.arraycopy(x, 0, shownX, 0, n);
+            System.arraycopy(y, 0, shownY, 0, n);
+            frame++;
+        }
+        return !isFinished();
+    }
+
+    public boolean isFinished() {
+        return iteration >= maxIterations || n < 2;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**Номер последнего опубликованного снимка, растет с каждой итерацией.
+     */
+    public synchronized long getFrame() {
+        return frame;
+    }
+
+    /**Копирует последний снимок координат, вписывая его ограничивающий прямоугольник
+     * в прямоугольник (left, top, width, height) с сохранением пропорций.
+     * Можно вызывать из любого потока параллельно с итерациями.
+     * @return Номер скопированного снимка.
+     */
+    public synchronized long copyPositions(int[] outX, int[] outY, int left, int top, int width, int height) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < n; v++) {
+            minX = Math.min(minX, shownX[v]);
+            maxX = Math.max(maxX, shownX[v]);
+            minY = Math.min(minY, shownY[v]);
+            maxY = Math.max(maxY, shownY[v]);
+        }
+        double spanX = Math.max(maxX - minX, MIN_DISTANCE);
+        double spanY = Math.max(maxY - minY, MIN_DISTANCE);
+        double scale = Math.min(width / spanX, height / spanY);
+        double shiftX = left + (width - spanX * scale) / 2;
+        double shiftY = top + (height - spanY * scale) / 2;
+        for (int v = 0; v < n; v++) {
+            outX[v] = (int) Math.round(shiftX + (shownX[v] - minX) * scale);
+            outY[v] = (int) Math.round(shiftY + (shownY[v] - minY) * scale);
+        }
+        return frame;
+    }
+
+    // Квадродерево
+
+    private void buildTree() {
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < n; v++) {
+            minX = Math.min(minX, x[v]);
+            maxX = Math.max(maxX, x[v]);
+            minY = Math.min(minY, y[v]);
+            maxY = Math.max(maxY, y[v]);
+        }
+        double size = Math.max(Math.max(maxX - minX, maxY - minY), MIN_DISTANCE);
+        nodeCount = 0;
+        build(newNode(), 0, n, minX, minY, size * (1 + 1e-9), 0);
+    }
+
+    /**Заполняет узел node над вершинами order[from..to) в квадрате с углом (left, top) и стороной size.
+     */
+    private void build(int node, int from, int to, double left, double top, double size, int depth) {
+        nodeFrom[node] = from;
+        nodeTo[node] = to;
+        nodeSize[node] = size;
+        nodeChild[node] = -1;
+        nodeChildCount[node] = 0;
+
+        double sumX = 0, sumY = 0;
+        for (int i = from; i < to; i++) {
+            sumX += x[order[i]];
+            sumY += y[order[i]];
+        }
+        nodeX[node] = sumX / (to - from);
+        nodeY[node] = sumY / (to - from);
+        if (to - from <= LEAF_SIZE || depth == MAX_DEPTH) {
+            return;
+        }
+
+        // Раскладываем вершины по четвертям подсчетом
+        double half = size / 2;
+        double midX = left + half, midY = top + half;
+        int[] counts = new int[4];
+        for (int i = from; i < to; i++) {
+            counts[quadrant(order[i], midX, midY)]++;
+        }
+        int[] starts = new int[5];
+        starts[0] = from;
+        for (int q = 0; q < 4; q++) {
+            starts[q + 1] = starts[q] + counts[q];
+        }
+        int[] fill = Arrays.copyOf(starts, 4);
+        for (int i = from; i < to; i++) {
+            int v = order[i];
+            orderBuffer[fill[quadrant(v, midX, midY)]++] = v;
+        }
+        System.arraycopy(orderBuffer, from, order, from, to - from);
+
+        // Непустые дети получают номера подряд: сначала резервируем места, потом заполняем
+        int first = nodeCount;
+        int childCount = 0;
+        for (int q = 0; q < 4; q++) {
+            if (counts[q] > 0) {
+                newNode();
+                childCount++;
+            }
+        }
+        nodeChild[node] = first;
+        nodeChildCount[node] = childCount;
+        int child = first;
+        for (int q = 0; q < 4; q++) {
+            if (counts[q] > 0) {
+                build(child++, starts[q], starts[q + 1], (q & 1) == 0 ? left : midX, (q & 2) == 0 ? top : midY, half, depth + 1);
+            }
+        }
+    }
+
+    private int quadrant(int v, double midX, double midY) {
+        return (x[v] < midX ? 0 : 1) | (y[v] < midY ? 0 : 2);
+    }
+
+    private int newNode() {
+        if (nodeCount == nodeChild.length) {
+            int capacity = Math.max(64, nodeCount * 2);
+            nodeChild = Arrays.copyOf(nodeChild, capacity);
+            nodeChildCount = Arrays.copyOf(nodeChildCount, capacity);
+            nodeFrom = Arrays.copyOf(nodeFrom, capacity);
+            nodeTo = Arrays.copyOf(nodeTo, capacity);
+            nodeSize = Arrays.copyOf(nodeSize, capacity);
+            nodeX = Arrays.copyOf(nodeX, capacity);
+            nodeY = Arrays.copyOf(nodeY, capacity);
+        }
+        return nodeCount++;
+    }
+
+    // Силы
+
+    /**Считает смещения вершин [from, to) по неизменным в этот момент координатам и дереву.
+     */
+    private void computeDisplacement(int from, int to) {
+        double k2 = k * k;
+        double theta2 = THETA * THETA;
+        int[] stack = new int[4 * MAX_DEPTH + 4];
+        for (int v = from; v < to; v++) {
+            double vx = x[v], vy = y[v];
+            double fx = 0, fy = 0;
+
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                if (nodeChild[node] < 0) {
+                    // Лист - силы от каждой вершины по отдельности
+                    for (int i = nodeFrom[node]; i < nodeTo[node]; i++) {
+                        int u = order[i];
+                        if (u == v) {
+                            continue;
+                        }
+                        double dx = vx - x[u], dy = vy - y[u];
+                        if (dx == 0 && dy == 0) {
+                            // Совпавшие вершины расталкиваются в противоположные стороны по направлению от номеров
+                            double angle = Math.min(u, v) * GOLDEN_ANGLE;
+                            double sign = v < u ? 1 : -1;
+                            dx = sign * Math.cos(angle) * MIN_DISTANCE;
+                            dy = sign * Math.sin(angle) * MIN_DISTANCE;
+                        }
+                        double d2 = Math.max(dx * dx + dy * dy, MIN_DISTANCE * MIN_DISTANCE);
+                        fx += dx * k2 / d2;
+                        fy += dy * k2 / d2;
+                    }
+                    continue;
+                }
+                double dx = vx - nodeX[node], dy = vy - nodeY[node];
+                double d2 = dx * dx + dy * dy;
+                if (nodeSize[node] * nodeSize[node] < theta2 * d2) {
+                    // Далекий узел действует как одна вершина с массой, равной числу вершин в нем
+                    double mass = nodeTo[node] - nodeFrom[node];
+                    fx += dx * k2 * mass / d2;
+                    fy += dy * k2 * mass / d2;
+                    continue;
+                }
+                int first = nodeChild[node];
+                for (int c = 0; c < nodeChildCount[node]; c++) {
+                    stack[top++] = first + c;
+                }
+            }
+
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int u = neighbors[i];
+                double dx = vx - x[u], dy = vy - y[u];
+                double d = Math.sqrt(dx * dx + dy * dy);
+                fx -= dx * d / k;
+                fy -= dy * d / k;
+            }
+            dispX[v] = fx;
+            dispY[v] = fy;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Компактное представление взвешенного неориентированного графа без привязки к интерфейсу.
+ * Вершины нумеруются 0..vertexCount-1, ребра хранятся в параллельных массивах src, dst, weight,
+ * индекс в которых является идентификатором ребра.
+ */
+public class Graph {
+    private final int vertexCount;
+    private int edgeCount;
+    private int[] src;
+    private int[] dst;
+    private int[] weight;
+    private int[] labels; // Подписи вершин для вывода, null - подпись равна id + 1
+
+    public Graph(int vertexCount) {
+        this(vertexCount, 16);
+    }
+
+    /**
+     * @param vertexCount количество вершин.
+     * @param edgeCapacity ожидаемое количество ребер (массивы не придется расширять).
+     */
+    public Graph(int vertexCount, int edgeCapacity) {
+        if (vertexCount < 0) {
+            throw new IllegalArgumentException("Количество вершин не может быть отрицательным: " + vertexCount);
+        }
+        this.vertexCount = vertexCount;
+        int capacity = Math.max(edgeCapacity, 1);
+        src = new int[capacity];
+        dst = new int[capacity];
+        weight = new int[capacity];
+    }
+
+    /**Создает граф поверх уже заполненных массивов ребер без копирования.
+     * @param edgeCount сколько первых элементов массивов занято ребрами.
+     */
+    Graph(int vertexCount, int[] src, int[] dst, int[] weight, int edgeCount) {
+        if (vertexCount < 0) {
+            throw new IllegalArgumentException("Количество вершин не может быть отрицательным: " + vertexCount);
+        }
+        this.vertexCount = vertexCount;
+        this.src = src;
+        this.dst = dst;
+        this.weight = weight;
+        this.edgeCount = edgeCount;
+    }
+
+    /**Добавляет ребро между вершинами u и v.
+     * @return Идентификатор добавленного ребра.
+     */
+    public int addEdge(int u, int v, int w) {
+        if (u < 0 || u >= vertexCount || v < 0 || v >= vertexCount) {
+            throw new IndexOutOfBoundsException("Ребро " + u + " - " + v + " вне графа из " + vertexCount + " вершин");
+        }
+        if (edgeCount == src.length) {
+            int capacity = src.length + (src.length >> 1) + 1;
+            src = Arrays.copyOf(src, capacity);
+            dst = Arrays.copyOf(dst, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+        src[edgeCount] = u;
+        dst[edgeCount] = v;
+        weight[edgeCount] = w;
+        return edgeCount++;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public int src(int edge) {
+        return src[edge];
+    }
+
+    public int dst(int edge) {
+        return dst[edge];
+    }
+
+    public int weight(int edge) {
+        return weight[edge];
+    }
+
+    /**Возвращает второй конец ребра.
+     */
+    public int other(int edge, int vertex) {
+        return src[edge] == vertex ? dst[edge] : src[edge];
+    }
+
+    /**Задает подпись вершины, которая используется в текстовом выводе.
+     */
+    public void setLabel(int vertex, int label) {
+        if (labels == null) {
+            labels = new int[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                labels[i] = i + 1;
+            }
+        }
+        labels[vertex] = label;
+    }
+
+    public int label(int vertex) {
+        return labels == null ? vertex + 1 : labels[vertex];
+    }
+
+    /**Текстовое представление ребра в виде "подпись - подпись".
+     */
+    public String edgeToString(int edge) {
+        return label(src[edge]) + " - " + label(dst[edge]);
+    }
+
+    // Прямой доступ к массивам для алгоритмов пакета (длина массива может быть больше edgeCount)
+
+    int[] srcArray() {
+        return src;
+    }
+
+    int[] dstArray() {
+        return dst;
+    }
+
+    int[] weightArray() {
+        return weight;
+    }
+}
\ No newline at end of file
@@ -9,9 +9,11 @@ public class GraphApp extends JFrame {
     private GraphPanel graphPanel;
     private JTextArea logArea;
     private JButton stepBackButton, stepForwardButton;
+    private JComboBox<MstEngine> engineBox;
 
     public GraphApp() {
         setTitle("Алгоритм Краскала");
+        MstMetrics.register(); // Метрики доступны через JConsole, включаются атрибутом Enabled
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setSize(1000, 700);
         setResizable(true);
@@ -20,15 +22,28 @@ public class GraphApp extends JFrame {
         JPanel topPanel = new JPanel();
         JButton startButton = new JButton("Старт Алгоритма");
         JButton loadButton = new JButton("Загрузка");
+        JButton saveButton = new JButton("Сохранить");
         JButton resultButton = new JButton("Результат");
+        JButton layoutButton = new JButton("Укладка");
+        engineBox = new JComboBox<>(MstEngine.values());
+        JCheckBox dynamicBox = new JCheckBox("Живой MST");
 
         resultButton.addActionListener(e -> runAlgorithmResult());
         startButton.addActionListener(e -> runAlgorithm());
         loadButton.addActionListener(e -> showLoadOptions());
+        saveButton.addActionListener(e -> saveGraph());
+        layoutButton.addActionListener(e -> graphPanel.startLayout());
+        engineBox.addActionListener(e -> graphPanel.setEngine((MstEngine) engineBox.getSelectedItem()));
+        // MST пересчитывается при каждой правке графа без запуска алгоритма
+        dynamicBox.addActionListener(e -> graphPanel.setDynamicMst(dynamicBox.isSelected()));
 
+        topPanel.add(engineBox);
         topPanel.add(resultButton);
         topPanel.add(startButton);
         topPanel.add(loadButton);
+        topPanel.add(saveButton);
+        topPanel.add(layoutButton);
+        topPanel.add(dynamicBox);
 
         JPanel bottomPanel = new JPanel();
         stepBackButton = new JButton("<--");
@@ -73,16 +88,21 @@ public class GraphApp extends JFrame {
             if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
                 File file = fileChooser.getSelectedFile();
                 graphPanel.loadFromFile(file);
+                // Загрузчик сам выбирает алгоритм по плотности графа
+                engineBox.setSelectedItem(graphPanel.getEngine());
             }
         } else if (choice == 1) {
             // Собираем панель с двумя полями ввода
-            JPanel inputPanel = new JPanel(new GridLayout(2, 2, 5, 5));
+            JPanel inputPanel = new JPanel(new GridLayout(3, 2, 5, 5));
             inputPanel.add(new JLabel("Количество вершин:"));
             JTextField vertField = new JTextField();
             inputPanel.add(vertField);
             inputPanel.add(new JLabel("Количество рёбер:"));
             JTextField edgeField = new JTextField();
             inputPanel.add(edgeField);
+            inputPanel.add(new JLabel("Зерно (необязательно):"));
+            JTextField seedField = new JTextField();
+            inputPanel.add(seedField);
 
             int result = JOptionPane.showConfirmDialog(
                     this,
@@ -101,7 +121,7 @@ public class GraphApp extends JFrame {
                         throw new NumberFormatException("Необходимо numVert ≥ 1");
                     }
                     // Максимальное число рёбер в простом неориентированном графе: n*(n-1)/2
-                    int maxEdges = numVert * (numVert - 1) / 2;
+                    long maxEdges = RandomGraphGenerator.maxEdges(numVert);
                     if (numEdges < 0 || numEdges > maxEdges) {
                         JOptionPane.showMessageDialog(
                                 this,
@@ -112,7 +132,12 @@ public class GraphApp extends JFrame {
                         return;
                     }
 
-                    graphPanel.generateRandomGraph(numVert, numEdges);
+                    String seedText = seedField.getText().trim();
+                    if (seedText.isEmpty()) {
+                        graphPanel.generateRandomGraph(numVert, numEdges);
+                    } else {
+                        graphPanel.generateRandomGraph(numVert, numEdges, Long.parseLong(seedText));
+                    }
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(
                             this,
@@ -125,6 +150,31 @@ public class GraphApp extends JFrame {
         }
     }
 
+    private void saveGraph() {
+        String[] options = {"Граф", "Сеанс"};
+        int choice = JOptionPane.showOptionDialog(
+                this,
+                "Сохранить:",
+                "Сохранение",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.INFORMATION_MESSAGE,
+                null,
+                options,
+                options[0]
+        );
+        if (choice < 0) return;
+
+        JFileChooser fileChooser = new JFileChooser();
+        if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            if (choice == 0) {
+                graphPanel.saveToFile(fileChooser.getSelectedFile());
+            } else {
+                // Сеанс загружается той же кнопкой "Из файла", формат узнается по сигнатуре
+                graphPanel.saveSession(fileChooser.getSelectedFile());
+            }
+        }
+    }
+
     private void runAlgorithmResult() {
         graphPanel.runAlgorithmResult();
     }
@@ -0,0 +1,156 @@
+package src.logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**Компактный двоичный формат графа.
+ * Заголовок (little-endian int): сигнатура KGRF, версия, флаги, количество вершин, количество ребер (long).
+ * Затем массивы ребер подряд: src[m], dst[m], weight[m], и при флаге FLAG_LABELS подписи вершин labels[n].
+ * Чтение отображает файл в память и переносит массивы в int[] массовым копированием, без разбора по ребрам.
+ */
+public final class GraphFile {
+    public static final int MAGIC = 0x4652474B; // "KGRF" в little-endian
+    public static final int VERSION = 1;
+    public static final int FLAG_LABELS = 1;
+
+    private static final int HEADER_BYTES = 24;
+    // Файл отображается окнами, так как один MappedByteBuffer ограничен 2 ГБ
+    private static final int WINDOW_INTS = 1 << 28;
+
+    private GraphFile() {
+    }
+
+    /**Проверяет по сигнатуре, записан ли файл в этом формате.
+     */
+    public static boolean isGraphFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return false;
+            }
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC;
+        }
+    }
+
+    /**Записывает граф в файл.
+     * @param withLabels сохранять ли подписи вершин.
+     */
+    public static void write(Graph graph, File file, boolean withLabels) throws IOException {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(withLabels ? FLAG_LABELS : 0).putInt(n).putLong(m);
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            writeInts(channel, buffer, graph.srcArray(), m);
+            writeInts(channel, buffer, graph.dstArray(), m);
+            writeInts(channel, buffer, graph.weightArray(), m);
+            if (withLabels) {
+                int[] labels = new int[n];
+                for (int v = 0; v < n; v++) {
+                    labels[v] = graph.label(v);
+                }
+                writeInts(channel, buffer, labels, n);
+            }
+        }
+    }
+
+    /**Читает граф, отображая файл в память.
+     */
+    public static Graph read(File file) throws IOException {
+        long metric = MstMetrics.begin();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Файл слишком короткий для заголовка графа");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Файл не является двоичным графом");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия формата: " + version);
+            }
+            int flags = header.getInt();
+            int n = header.getInt();
+            long m = header.getLong();
+            if (n < 0 || m < 0 || m > Integer.MAX_VALUE - 8) {
+                throw new IOException("Некорректный размер графа: " + n + " вершин, " + m + " ребер");
+            }
+            boolean hasLabels = (flags & FLAG_LABELS) != 0;
+            long expected = HEADER_BYTES + 12 * m + (hasLabels ? 4L * n : 0);
+            if (channel.size() < expected) {
+                throw new IOException("Файл обрезан: " + channel.size() + " байт вместо " + expected);
+            }
+
+            int edges = (int) m;
+            long offset = HEADER_BYTES;
+            int[] src = readInts(channel, offset, edges);
+            offset += 4L * edges;
+            int[] dst = readInts(channel, offset, edges);
+            offset += 4L * edges;
+            int[] weight = readInts(channel, offset, edges);
+            offset += 4L * edges;
+
+            for (int e = 0; e < edges; e++) {
+                if (src[e] < 0 || src[e] >= n || dst[e] < 0 || dst[e] >= n) {
+                    throw new IOException("Ребро " + e + " ссылается на несуществующую вершину");
+                }
+            }
+            Graph graph = new Graph(n, src, dst, weight, edges);
+            if (hasLabels) {
+                int[] labels = readInts(channel, offset, n);
+                for (int v = 0; v < n; v++) {
+                    graph.setLabel(v, labels[v]);
+                }
+            }
+            MstMetrics.end(MstMetrics.Phase.PARSE, metric);
+            return graph;
+        }
+    }
+
+    static int[] readInts(FileChannel channel, long offset, int count) throws IOException {
+        int[] result = new int[count];
+        int done = 0;
+        while (done < count) {
+            int chunk = Math.min(WINDOW_INTS, count - done);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset + 4L * done, 4L * chunk);
+            IntBuffer ints = window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            ints.get(result, done, chunk);
+            done += chunk;
+        }
+        return result;
+    }
+
+    static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, int count) throws IOException {
+        buffer.clear();
+        IntBuffer ints = buffer.asIntBuffer();
+        int done = 0;
+        while (done < count) {
+            int chunk = Math.min(ints.capacity(), count - done);
+            ints.clear();
+            ints.put(values, done, chunk);
+            buffer.clear();
+            buffer.limit(chunk * 4);
+            writeFully(channel, buffer);
+            done += chunk;
+        }
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
\ No newline at end of file
@@ -1,129 +1,121 @@
 package src.logic;
 
 import java.util.*;
-import src.gui.GraphPanel;
-import src.logic.State;
 
-// Класс для поиска пути и детекции цикла
-class CycleDetector {
+// Реализация Kruskal
+public class Kruskal implements MstAlgorithm {
+    // Прогресс сообщается раз в столько ребер
+    private static final int PROGRESS_INTERVAL = 1 << 12;
+
+    private final Graph graph;
+    private final StepLog stepLog;
+    private long totalWeight;
+    private long sortNanos;
+    private long unionNanos;
+    private ProgressListener progress;
+
+    public Kruskal(Graph graph) {
+        this(graph, true);
+    }
+
     /**
-     * Ищет простой путь между start и target.
-     * Возвращает список ребер пути или пустой список если пути нет.
+     * @param recordSteps вести ли журнал шагов для визуализации.
+     *                    Без него обход ребер прекращается, как только в MST набрано V-1 ребро.
      */
-    public static List<GraphPanel.Edge> findPath(
-            Collection<GraphPanel.Edge> edges,
-            int start,
-            int target
-    ) {
-        // Строим список смежности
-        Map<Integer, List<GraphPanel.Edge>> adj = new HashMap<>();
-        for (GraphPanel.Edge e : edges) {
-            adj.computeIfAbsent(e.v1.label, k -> new ArrayList<>()).add(e);
-            adj.computeIfAbsent(e.v2.label, k -> new ArrayList<>()).add(e);
-        }
-
-        // DFS для поиска пути
-        Deque<Integer> stack = new ArrayDeque<>();
-        Map<Integer, GraphPanel.Edge> edgeTo = new HashMap<>();
-        Set<Integer> visited = new HashSet<>();
-
-        stack.push(start);
-        visited.add(start);
-
-        while (!stack.isEmpty()) {
-            int u = stack.pop();
-            if (u == target) break;
-            for (GraphPanel.Edge e : adj.getOrDefault(u, Collections.emptyList())) {
-                int w = (e.v1.label == u ? e.v2.label : e.v1.label);
-                if (!visited.contains(w)) {
-                    visited.add(w);
-                    edgeTo.put(w, e);
-                    stack.push(w);
-                }
-            }
-        }
-
-        // Сбор пути
-        List<GraphPanel.Edge> path = new ArrayList<>();
-        if (!visited.contains(target)) {
-            return path; // пути нет
-        }
-        Integer cur = target;
-        while (cur != null && cur != start) {
-            GraphPanel.Edge e = edgeTo.get(cur);
-            path.add(e);
-            cur = (e.v1.label == cur ? e.v2.label : e.v1.label);
-        }
-        Collections.reverse(path);
-        return path;
+    public Kruskal(Graph graph, boolean recordSteps) {
+        this.graph = graph;
+        this.stepLog = recordSteps ? new StepLog(graph) : null;
     }
 
-    /**
-     * Возвращает ребра цикла: найденный путь + новое ребро.
+    /**Строит минимальное остовное дерево (лес, если граф несвязный).
+     * @return Идентификаторы ребер MST в порядке их добавления.
      */
-    public static List<GraphPanel.Edge> findCycleEdges(
-            Collection<GraphPanel.Edge> includedEdges,
-            GraphPanel.Edge newEdge
-    ) {
-        List<GraphPanel.Edge> path = findPath(includedEdges,
-                newEdge.v1.label, newEdge.v2.label);
-        if (path.isEmpty()) {
-            return Collections.emptyList();
+    @Override
+    public int[] computeMST() {
+        int m = graph.getEdgeCount();
+        int n = graph.getVertexCount();
+        int[] weight = graph.weightArray();
+        long start = System.nanoTime();
+
+        // Сортировка по ключу (вес, id): равные по весу ребра идут в порядке добавления
+        long[] keys = new long[m];
+        for (int e = 0; e < m; e++) {
+            keys[e] = ((long) weight[e] << 32) | e;
         }
-        List<GraphPanel.Edge> cycle = new ArrayList<>(path);
-        cycle.add(newEdge);
-        return cycle;
-    }
-}
+        EdgeSorter.sort(keys, 0, m);
+        long sorted = System.nanoTime();
+        sortNanos = sorted - start;
 
+        int[] mst = new int[Math.max(n - 1, 0)];
+        int mstSize = 0;
+        totalWeight = 0;
 
+        DisjointSet components = new DisjointSet(n);
 
-// Реализация Kruskal
-public class Kruskal {
+        int examined = m;
+        for (int i = 0; i < m; i++) {
+            if (progress != null && i % PROGRESS_INTERVAL == 0) {
+                progress.onProgress(i, m, mstSize);
+            }
+            int edge = (int) keys[i];
+            // Концы ребра уже в одной компоненте -> ребро замкнет цикл
+            boolean added = components.union(graph.src(edge), graph.dst(edge));
 
-    private final int numVertices;
-    private final List<GraphPanel.Edge> edges;
-    private final List<State> states;
+            if (added) {
+                mst[mstSize++] = edge;
+                totalWeight += weight[edge];
+            }
 
-    public Kruskal(List<GraphPanel.Edge> inputEdges, int numVertices) {
-        this.numVertices = numVertices;
-        this.edges = new ArrayList<>(inputEdges);
-        this.states = new ArrayList<>();
+            if (stepLog != null) {
+                // Записываем только решение по ребру, цикл восстанавливается при показе шага
+                stepLog.append(edge, added);
+            } else if (mstSize == n - 1) {
+                // Остовное дерево уже построено, остальные ребра только замкнут циклы
+                examined = i + 1;
+                break;
+            }
+        }
+        unionNanos = System.nanoTime() - sorted;
+        MstMetrics.add(MstMetrics.Phase.SORT, sortNanos);
+        MstMetrics.add(MstMetrics.Phase.MST, unionNanos);
+        MstMetrics.countEdges(examined, mstSize, examined - mstSize);
+        if (stepLog != null) {
+            MstMetrics.recordStepHistory(stepLog);
+        }
+        if (progress != null) {
+            progress.onProgress(m, m, mstSize);
+        }
+        return Arrays.copyOf(mst, mstSize);
     }
 
-    public void addEdge(GraphPanel.Edge edge) {
-        edges.add(edge);
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        this.progress = listener;
     }
 
-    public ArrayList<GraphPanel.Edge> computeMST() {
-        Collections.sort(edges);
-        ArrayList<GraphPanel.Edge> mst = new ArrayList<>();
-        ArrayList<GraphPanel.Edge> excludedEdges = new ArrayList<>();
-        int totalWeight = 0;
-
-        for (GraphPanel.Edge edge : edges) {
-            // Проверяем: есть ли путь между концами ребра в текущем MST
-            List<GraphPanel.Edge> path = CycleDetector.findPath(mst, edge.v1.label, edge.v2.label);
-            boolean added = path.isEmpty();
-            List<GraphPanel.Edge> cycle = Collections.emptyList();
+    /**Время сортировки ребер в последнем запуске, нс.
+     */
+    public long getSortNanos() {
+        return sortNanos;
+    }
 
-            if (added) {
-                mst.add(edge);
-                totalWeight += edge.weight;
-            } else {
-                // Документируем цикл
-                cycle = CycleDetector.findCycleEdges(mst, edge);
-                excludedEdges.add(edge);
-                // Если цикл найден, то ребро не добавляем в MST
-            }
+    /**Время прохода по ребрам с union-find в последнем запуске, нс.
+     */
+    public long getUnionNanos() {
+        return unionNanos;
+    }
 
-            // Сохраняем состояние после обработки ребра
-            states.add(new State(mst,excludedEdges, totalWeight, edge, added, cycle));
-        }
-        return mst;
+    /**Возвращает суммарный вес последнего построенного MST.
+     */
+    @Override
+    public long getTotalWeight() {
+        return totalWeight;
     }
 
-    public List<State> getStates() {
-        return states;
+    /**Возвращает журнал шагов или null, если он не велся.
+     */
+    @Override
+    public StepLog getStepLog() {
+        return stepLog;
     }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Множество неотрицательных long с открытой адресацией и линейным пробированием.
+ * Хранит ключи в одном массиве long[] без упаковки в объекты.
+ */
+final class LongHashSet {
+    private static final long EMPTY = -1;
+    // Больше 2^30 ячеек не адресуется int-маской без переполнения
+    private static final int MAX_CAPACITY = 1 << 30;
+    // Заполнение не выше половины, поэтому ключей не больше
+    static final int MAX_SIZE = MAX_CAPACITY / 2;
+
+    private long[] table;
+    private int mask;
+    private int size;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) Math.min(MAX_CAPACITY, expectedSize * 2L)) - 1) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /**Добавляет ключ.
+     * @return Возвращает true если ключа еще не было.
+     */
+    boolean add(long key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Ключ должен быть неотрицательным: " + key);
+        }
+        if (size * 2 >= table.length) {
+            grow();
+        }
+        int slot = slot(key);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        size++;
+        return true;
+    }
+
+    boolean contains(long key) {
+        int slot = slot(key);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        return (int) RandomGraphGenerator.mix(key) & mask;
+    }
+
+    private void grow() {
+        long[] old = table;
+        if (old.length >= MAX_CAPACITY) {
+            throw new IllegalStateException("Слишком много ключей для множества: " + size
+                    + ", предел " + MAX_SIZE);
+        }
+        table = new long[old.length * 2];
+        Arrays.fill(table, EMPTY);
+        mask = table.length - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = key;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,208 @@
+package src.logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**Потоковый разбор текстовой матрицы смежности прямо из байтов файла.
+ * Файл читается через FileChannel блоками фиксированного размера, числа собираются из цифр на лету,
+ * строки и массивы токенов не создаются. Разбираются только ячейки выше диагонали (j > i):
+ * матрица симметрична, нижний треугольник лишь пропускается.
+ * Размер n определяется по количеству чисел в первой непустой строке, 0 означает отсутствие ребра.
+ * Короткие и длинные строки, а также непустые строки после n-й считаются ошибкой формата.
+ */
+public final class MatrixParser {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private MatrixParser() {
+    }
+
+    /**Читает матрицу в компактный граф. Идентификаторы ребер идут по строкам верхнего треугольника.
+     */
+    public static Graph parseGraph(File file) throws IOException {
+        long metric = MstMetrics.begin();
+        GraphSink sink = new GraphSink();
+        int n = scan(file, sink);
+        MstMetrics.end(MstMetrics.Phase.PARSE, metric);
+        return new Graph(n, sink.src, sink.dst, sink.weight, sink.count);
+    }
+
+    /**Читает матрицу в массив int[n*n] для Prim. Заполняется только верхний треугольник.
+     */
+    public static int[] parseMatrix(File file) throws IOException {
+        long metric = MstMetrics.begin();
+        MatrixSink sink = new MatrixSink();
+        int n = scan(file, sink);
+        MstMetrics.end(MstMetrics.Phase.PARSE, metric);
+        return n == 0 ? new int[0] : sink.matrix;
+    }
+
+    // Получатель ячеек выше диагонали
+    private abstract static class CellSink {
+        abstract void cell(int row, int col, int value);
+
+        /**Вызывается после первой строки, когда стал известен размер матрицы.
+         */
+        void sizeKnown(int n) {
+        }
+    }
+
+    private static final class GraphSink extends CellSink {
+        int[] src = new int[1024];
+        int[] dst = new int[1024];
+        int[] weight = new int[1024];
+        int count;
+
+        @Override
+        void cell(int row, int col, int value) {
+            if (count == src.length) {
+                int capacity = count * 2;
+                src = Arrays.copyOf(src, capacity);
+                dst = Arrays.copyOf(dst, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            src[count] = row;
+            dst[count] = col;
+            weight[count] = value;
+            count++;
+        }
+    }
+
+    private static final class MatrixSink extends CellSink {
+        int n = -1;
+        int[] matrix;
+        // Пока размер неизвестен, ячейки первой строки копятся здесь
+        int[] firstRow = new int[64];
+        int firstRowCount;
+
+        @Override
+        void cell(int row, int col, int value) {
+            if (n == -1) {
+                if (col >= firstRow.length) {
+                    firstRow = Arrays.copyOf(firstRow, Math.max(col + 1, firstRow.length * 2));
+                }
+                firstRow[col] = value;
+                firstRowCount = Math.max(firstRowCount, col + 1);
+                return;
+            }
+            matrix[row * n + col] = value;
+        }
+
+        @Override
+        void sizeKnown(int size) {
+            if (size > Prim.MAX_VERTICES) {
+                throw new IllegalArgumentException("Слишком большая матрица: " + size + "x" + size);
+            }
+            n = size;
+            matrix = new int[n * n];
+            System.arraycopy(firstRow, 0, matrix, 0, firstRowCount);
+            firstRow = null;
+        }
+    }
+
+    /**Проход по байтам файла.
+     * @return Размер матрицы n.
+     */
+    private static int scan(File file, CellSink sink) throws IOException {
+        int n = -1;
+        int row = 0;
+        int col = 0;          // Номер текущего или следующего числа в строке
+        boolean inToken = false;
+        boolean parse = false; // Токен выше диагонали - собираем число
+        boolean negative = false;
+        boolean digits = false;
+        boolean invalid = false;
+        long value = 0;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            boolean eof = false;
+            while (!eof) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                int limit;
+                if (read <= 0) {
+                    // Виртуальный перевод строки в конце файла закрывает последнюю строку
+                    eof = true;
+                    bytes[0] = '\n';
+                    limit = 1;
+                } else {
+                    limit = read;
+                }
+                for (int i = 0; i < limit; i++) {
+                    byte b = bytes[i];
+                    if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                        if (inToken) {
+                            // Конец числа
+                            if (parse) {
+                                if (!digits || invalid || (!negative && value > Integer.MAX_VALUE)) {
+                                    throw new NumberFormatException("Неверный формат веса: строка " + (row + 1) + ", столбец " + (col + 1));
+                                }
+                                int w = (int) (negative ? -value : value);
+                                if (w != 0) {
+                                    sink.cell(row, col, w);
+                                }
+                            }
+                            inToken = false;
+                            col++;
+                        }
+                        if (b == '\n' && col > 0) {
+                            // Конец непустой строки
+                            if (n == -1) {
+                                n = col;
+                                sink.sizeKnown(n);
+                            } else if (col < n) {
+                                throw new IOException("Строка " + (row + 1) + " содержит " + col + " чисел вместо " + n);
+                            }
+                            row++;
+                            col = 0;
+                        }
+                        continue;
+                    }
+                    if (!inToken) {
+                        if (n != -1 && row >= n) {
+                            throw new IOException("Строка " + (row + 1) + " лишняя: матрица " + n + "x" + n);
+                        }
+                        if (n != -1 && col >= n) {
+                            throw new IOException("Строка " + (row + 1) + " содержит больше " + n + " чисел");
+                        }
+                        inToken = true;
+                        parse = col > row;
+                        negative = false;
+                        digits = false;
+                        invalid = false;
+                        value = 0;
+                        if (parse && b == '-') {
+                            negative = true;
+                            continue;
+                        }
+                    }
+                    if (!parse) {
+                        continue; // Нижний треугольник и диагональ только пропускаем
+                    }
+                    if (b >= '0' && b <= '9') {
+                        value = value * 10 + (b - '0');
+                        digits = true;
+                        if (value > (long) Integer.MAX_VALUE + 1) {
+                            invalid = true;
+                            value = 0;
+                        }
+                    } else {
+                        invalid = true;
+                    }
+                }
+            }
+        }
+        if (n == -1) {
+            return 0; // Пустой файл
+        }
+        if (row < n) {
+            throw new IOException("Матрица не квадратная: " + row + " строк при " + n + " столбцах");
+        }
+        return n;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package src.logic;
+
+/**Общий интерфейс алгоритмов построения минимального остовного дерева.
+ * Все реализации возвращают идентификаторы ребер графа Graph.
+ */
+public interface MstAlgorithm {
+
+    /**Строит минимальное остовное дерево (лес, если граф несвязный).
+     * @return Идентификаторы ребер MST.
+     */
+    int[] computeMST();
+
+    /**Возвращает суммарный вес последнего построенного MST.
+     */
+    long getTotalWeight();
+
+    /**Возвращает журнал шагов для визуализации или null, если алгоритм его не ведет.
+     */
+    StepLog getStepLog();
+
+    /**Подписывает на прогресс вычисления. Алгоритмы, не сообщающие прогресс, вызов игнорируют.
+     */
+    default void setProgressListener(ProgressListener listener) {
+    }
+}
\ No newline at end of file
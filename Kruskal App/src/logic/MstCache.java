@@ -0,0 +1,117 @@
+package src.logic;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**Кэш результатов MST на диске, адресуемый содержимым графа.
+ * Ключ - структурный хэш: количество вершин, их подписи и мультимножество ребер (пара концов без учета
+ * направления и вес). Хэш не зависит от порядка ребер, поэтому один и тот же граф, записанный в другом
+ * порядке, находит тот же результат. При равных весах такой результат может отличаться от нового расчета
+ * выбором ребер, но это тоже минимальное остовное дерево того же веса.
+ * Каждая запись - отдельный файл с именем по ключу, запись идет через временный файл и переименование.
+ */
+public class MstCache {
+    private static final int MAGIC = 0x4B4D5354; // "KMST"
+    private static final int VERSION = 1;
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final File directory;
+
+    /**Результат из кэша: ребра MST в номерах вершин графа.
+     */
+    public record Entry(int[] src, int[] dst, int[] weight, long totalWeight) {
+        public int size() {
+            return src.length;
+        }
+    }
+
+    public MstCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**Структурный хэш графа: 128 бит в виде 32 шестнадцатеричных символов.
+     * Хэш мультимножества - сумма хэшей элементов, поэтому порядок ребер не важен, а кратность учитывается.
+     */
+    public static String key(Graph graph) {
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        long first = RandomGraphGenerator.mix(n) ^ RandomGraphGenerator.mix(m + 0x9E3779B97F4A7C15L);
+        long second = RandomGraphGenerator.mix(first);
+        for (int v = 0; v < n; v++) {
+            long h = ((long) v << 32) | (graph.label(v) & 0xFFFFFFFFL);
+            first += RandomGraphGenerator.mix(h);
+            second += RandomGraphGenerator.mix(h ^ 0x632BE59BD9B4E019L);
+        }
+        for (int e = 0; e < m; e++) {
+            int u = Math.min(graph.src(e), graph.dst(e));
+            int v = Math.max(graph.src(e), graph.dst(e));
+            long pair = ((long) u << 32) | v;
+            long h = RandomGraphGenerator.mix(pair) ^ RandomGraphGenerator.mix(graph.weight(e) + 0x2545F4914F6CDD1DL);
+            first += RandomGraphGenerator.mix(h);
+            second += RandomGraphGenerator.mix(h ^ 0xD6E8FEB86659FD93L);
+        }
+        return String.format("%016x%016x", first, second);
+    }
+
+    /**Ищет сохраненный результат для графа.
+     * @return Запись или null, если результата нет или файл не подходит к графу.
+     */
+    public Entry get(Graph graph) throws IOException {
+        File file = fileFor(graph);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), IO_BUFFER))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readInt() != graph.getVertexCount() || in.readInt() != graph.getEdgeCount()) {
+                return null;
+            }
+            int size = in.readInt();
+            long totalWeight = in.readLong();
+            int[] src = new int[size];
+            int[] dst = new int[size];
+            int[] weight = new int[size];
+            for (int i = 0; i < size; i++) {
+                src[i] = in.readInt();
+                dst[i] = in.readInt();
+                weight[i] = in.readInt();
+            }
+            return new Entry(src, dst, weight, totalWeight);
+        }
+    }
+
+    /**Сохраняет результат для графа.
+     * @param mst идентификаторы ребер MST графа.
+     */
+    public void put(Graph graph, int[] mst, long totalWeight) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Не удалось создать каталог кэша: " + directory);
+        }
+        File file = fileFor(graph);
+        File temp = File.createTempFile("mst", ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp), IO_BUFFER))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(graph.getVertexCount());
+                out.writeInt(graph.getEdgeCount());
+                out.writeInt(mst.length);
+                out.writeLong(totalWeight);
+                for (int edge : mst) {
+                    out.writeInt(graph.src(edge));
+                    out.writeInt(graph.dst(edge));
+                    out.writeInt(graph.weight(edge));
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private File fileFor(Graph graph) {
+        return new File(directory, key(graph) + ".mst");
+    }
+}
\ No newline at end of file
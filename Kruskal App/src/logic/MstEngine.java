@@ -0,0 +1,40 @@
+package src.logic;
+
+/**Доступные алгоритмы построения MST с журналом шагов.
+ */
+public enum MstEngine {
+    KRUSKAL("Краскал"),
+    BORUVKA("Борувка"),
+    PRIM("Прим");
+
+    private final String title;
+
+    MstEngine(String title) {
+        this.title = title;
+    }
+
+    /**Создает алгоритм для графа.
+     * @param recordSteps вести ли журнал шагов для визуализации.
+     */
+    public MstAlgorithm create(Graph graph, boolean recordSteps) {
+        switch (this) {
+            case BORUVKA:
+                return new Boruvka(graph, recordSteps);
+            case PRIM:
+                return new Prim(graph, recordSteps);
+            default:
+                return new Kruskal(graph, recordSteps);
+        }
+    }
+
+    /**Подбирает алгоритм по плотности графа: для плотных - Прим на матрице, иначе Краскал.
+     */
+    public static MstEngine forGraph(int vertexCount, long edgeCount) {
+        return Prim.isDense(vertexCount, edgeCount) ? PRIM : KRUSKAL;
+    }
+
+    @Override
+    public String toString() {
+        return title;
+    }
+}
\ No newline at end of file
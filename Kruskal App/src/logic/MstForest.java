@@ -0,0 +1,150 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Лес из ребер остова с запросами пути между вершинами за O(длина пути + log V).
+ * Каждое дерево подвешивается за корень, для вершин хранятся родитель, ребро к родителю, глубина
+ * и таблица двоичных подъемов up[k][v] - предок на 2^k уровней выше. Путь u - v идет через
+ * наименьшего общего предка (LCA), который находится подъемами за O(log V).
+ */
+public class MstForest {
+    private static final int NONE = -1;
+
+    private final Graph graph;
+    private final int[] parentEdge; // Ребро к родителю, NONE у корня
+    private final int[] depth;
+    private final int[] tree;       // Корень дерева вершины
+    private final int[][] up;
+
+    /**
+     * @param graph граф, которому принадлежат ребра.
+     * @param edgeIds ребра леса, первые count элементов. Ребра не должны образовывать циклов.
+     */
+    public MstForest(Graph graph, int[] edgeIds, int count) {
+        this.graph = graph;
+        int n = graph.getVertexCount();
+        parentEdge = new int[n];
+        depth = new int[n];
+        tree = new int[n];
+        Arrays.fill(tree, NONE);
+
+        // Список смежности на массивах, как в Graph: head[v] -> слот, next[слот] -> следующий слот
+        int[] head = new int[n];
+        Arrays.fill(head, NONE);
+        int[] next = new int[2 * count];
+        for (int i = 0; i < count; i++) {
+            int e = edgeIds[i];
+            next[2 * i] = head[graph.src(e)];
+            head[graph.src(e)] = 2 * i;
+            next[2 * i + 1] = head[graph.dst(e)];
+            head[graph.dst(e)] = 2 * i + 1;
+        }
+
+        int levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+        up = new int[levels][n];
+
+        // Обход в ширину от каждого еще не посещенного корня: родитель обработан раньше потомков
+        int[] queue = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (tree[root] != NONE) {
+                continue;
+            }
+            tree[root] = root;
+            parentEdge[root] = NONE;
+            up[0][root] = root;
+            int headIndex = 0, tail = 0;
+            queue[tail++] = root;
+            while (headIndex < tail) {
+                int u = queue[headIndex++];
+                for (int slot = head[u]; slot != NONE; slot = next[slot]) {
+                    int e = edgeIds[slot / 2];
+                    int v = graph.other(e, u);
+                    if (tree[v] == NONE) {
+                        tree[v] = root;
+                        parentEdge[v] = e;
+                        depth[v] = depth[u] + 1;
+                        up[0][v] = u;
+                        queue[tail++] = v;
+                    }
+                }
+            }
+        }
+        for (int k = 1; k < levels; k++) {
+            int[] prev = up[k - 1];
+            int[] cur = up[k];
+            for (int v = 0; v < n; v++) {
+                cur[v] = prev[prev[v]];
+            }
+        }
+    }
+
+    /**Оценка памяти массивов леса в байтах.
+     */
+    long retainedBytes() {
+        int n = depth.length;
+        return 4L * n * (3 + up.length);
+    }
+
+    /**Наименьший общий предок u и v или -1, если они в разных деревьях.
+     */
+    public int lca(int u, int v) {
+        if (tree[u] != tree[v]) {
+            return NONE;
+        }
+        if (depth[u] < depth[v]) {
+            int tmp = u;
+            u = v;
+            v = tmp;
+        }
+        int diff = depth[u] - depth[v];
+        for (int k = 0; diff != 0; k++, diff >>>= 1) {
+            if ((diff & 1) != 0) {
+                u = up[k][u];
+            }
+        }
+        if (u == v) {
+            return u;
+        }
+        for (int k = up.length - 1; k >= 0; k--) {
+            if (up[k][u] != up[k][v]) {
+                u = up[k][u];
+                v = up[k][v];
+            }
+        }
+        return up[0][u];
+    }
+
+    /**Ребра пути от u до v по порядку или пустой массив, если вершины не связаны.
+     */
+    public int[] path(int u, int v) {
+        int ancestor = lca(u, v);
+        if (ancestor == NONE) {
+            return State.NO_EDGES;
+        }
+        int fromU = depth[u] - depth[ancestor];
+        int[] path = new int[fromU + depth[v] - depth[ancestor]];
+        // Часть от u вверх до LCA идет в прямом порядке, часть от v - в обратном
+        for (int i = 0, x = u; i < fromU; i++) {
+            path[i] = parentEdge[x];
+            x = up[0][x];
+        }
+        for (int i = path.length - 1, x = v; i >= fromU; i--) {
+            path[i] = parentEdge[x];
+            x = up[0][x];
+        }
+        return path;
+    }
+
+    /**Ребра цикла, который замкнуло бы ребро edge: путь между его концами и само ребро.
+     * @return Пустой массив, если концы ребра в разных деревьях.
+     */
+    public int[] cycle(int edge) {
+        int[] path = path(graph.src(edge), graph.dst(edge));
+        if (path.length == 0) {
+            return path;
+        }
+        int[] cycle = Arrays.copyOf(path, path.length + 1);
+        cycle[path.length] = edge;
+        return cycle;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,237 @@
+package src.logic;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**Метрики построения MST: время фаз, количество рассмотренных, включенных и отброшенных ребер,
+ * длины путей циклов и размер журнала шагов. Доступны через JMX (src.logic:type=MstMetrics)
+ * и текстовой сводкой getSummary().
+ * Замеры делаются на уровне фаз, а не отдельных ребер. Когда метрики выключены, каждая точка замера
+ * стоит одного чтения volatile-флага. Включаются свойством -Dkruskal.metrics=true, из JMX
+ * или методом setEnabled.
+ */
+public final class MstMetrics implements MstMetricsMBean {
+    public static final String OBJECT_NAME = "src.logic:type=MstMetrics";
+
+    /**Фазы, время которых измеряется.
+     */
+    public enum Phase {
+        PARSE("parse"),  // Чтение графа из файла
+        SORT("sort"),    // Сортировка ребер
+        MST("mst"),      // Основной цикл алгоритма: union-find, выбор ребер
+        STATE("state"),  // Восстановление State из журнала
+        CYCLE("cycle");  // Поиск цикла для отброшенного ребра
+
+        private final String title;
+
+        Phase(String title) {
+            this.title = title;
+        }
+    }
+
+    private static final MstMetrics INSTANCE = new MstMetrics();
+
+    private static volatile boolean enabled = Boolean.getBoolean("kruskal.metrics");
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder[] phaseCalls = new LongAdder[Phase.values().length];
+    private final LongAdder edgesExamined = new LongAdder();
+    private final LongAdder edgesAccepted = new LongAdder();
+    private final LongAdder edgesRejected = new LongAdder();
+    private final LongAdder cycleQueries = new LongAdder();
+    private final LongAdder cyclePathEdges = new LongAdder();
+    private final AtomicLong maxCyclePath = new AtomicLong();
+    private volatile long stepHistoryBytes;
+
+    private MstMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+            phaseCalls[i] = new LongAdder();
+        }
+    }
+
+    public static MstMetrics get() {
+        return INSTANCE;
+    }
+
+    /**Регистрирует метрики на платформенном MBeanServer. Повторный вызов ничего не делает.
+     */
+    public static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Уже зарегистрированы
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики в JMX", e);
+        }
+    }
+
+    // ---- Точки замера ----
+
+    /**Начало замера фазы.
+     * @return Метка времени или 0, если метрики выключены.
+     */
+    static long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**Конец замера фазы, начатого begin().
+     */
+    static void end(Phase phase, long start) {
+        if (start != 0) {
+            add(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**Добавляет уже измеренное время фазы.
+     */
+    static void add(Phase phase, long nanos) {
+        if (enabled) {
+            INSTANCE.phaseNanos[phase.ordinal()].add(nanos);
+            INSTANCE.phaseCalls[phase.ordinal()].increment();
+        }
+    }
+
+    /**Итоги прохода по ребрам, добавляются одним вызовом на запуск.
+     */
+    static void countEdges(long examined, long accepted, long rejected) {
+        if (enabled) {
+            INSTANCE.edgesExamined.add(examined);
+            INSTANCE.edgesAccepted.add(accepted);
+            INSTANCE.edgesRejected.add(rejected);
+        }
+    }
+
+    static void countCyclePath(int length) {
+        if (enabled) {
+            INSTANCE.cycleQueries.increment();
+            INSTANCE.cyclePathEdges.add(length);
+            INSTANCE.maxCyclePath.accumulateAndGet(length, Math::max);
+        }
+    }
+
+    static void recordStepHistory(StepLog log) {
+        if (enabled) {
+            INSTANCE.stepHistoryBytes = log.retainedBytes();
+        }
+    }
+
+    // ---- MBean ----
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i].reset();
+            phaseCalls[i].reset();
+        }
+        edgesExamined.reset();
+        edgesAccepted.reset();
+        edgesRejected.reset();
+        cycleQueries.reset();
+        cyclePathEdges.reset();
+        maxCyclePath.set(0);
+        stepHistoryBytes = 0;
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return getPhaseNanos(Phase.PARSE);
+    }
+
+    @Override
+    public long getSortNanos() {
+        return getPhaseNanos(Phase.SORT);
+    }
+
+    @Override
+    public long getMstNanos() {
+        return getPhaseNanos(Phase.MST);
+    }
+
+    @Override
+    public long getStateNanos() {
+        return getPhaseNanos(Phase.STATE);
+    }
+
+    @Override
+    public long getCycleNanos() {
+        return getPhaseNanos(Phase.CYCLE);
+    }
+
+    @Override
+    public long getEdgesExamined() {
+        return edgesExamined.sum();
+    }
+
+    @Override
+    public long getEdgesAccepted() {
+        return edgesAccepted.sum();
+    }
+
+    @Override
+    public long getEdgesRejected() {
+        return edgesRejected.sum();
+    }
+
+    @Override
+    public long getCycleQueries() {
+        return cycleQueries.sum();
+    }
+
+    @Override
+    public long getCyclePathEdges() {
+        return cyclePathEdges.sum();
+    }
+
+    @Override
+    public long getMaxCyclePath() {
+        return maxCyclePath.get();
+    }
+
+    @Override
+    public long getStepHistoryBytes() {
+        return stepHistoryBytes;
+    }
+
+    @Override
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            long calls = phaseCalls[phase.ordinal()].sum();
+            if (calls > 0) {
+                summary.append(String.format("%-6s %10.1f ms  (%d)%n", phase.title, getPhaseNanos(phase) / 1e6, calls));
+            }
+        }
+        summary.append(String.format("ребра: рассмотрено %,d, включено %,d, отброшено %,d%n",
+                getEdgesExamined(), getEdgesAccepted(), getEdgesRejected()));
+        long queries = getCycleQueries();
+        if (queries > 0) {
+            summary.append(String.format("циклы: %,d запросов, средняя длина %.1f, максимальная %d%n",
+                    queries, (double) getCyclePathEdges() / queries, getMaxCyclePath()));
+        }
+        if (stepHistoryBytes > 0) {
+            summary.append(String.format("журнал шагов: %,d Б%n", stepHistoryBytes));
+        }
+        return summary.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package src.logic;
+
+/**JMX-интерфейс метрик построения MST. Времена в наносекундах, накопленные с последнего reset().
+ */
+public interface MstMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /**Обнуляет все счетчики.
+     */
+    void reset();
+
+    long getParseNanos();
+
+    long getSortNanos();
+
+    long getMstNanos();
+
+    long getStateNanos();
+
+    long getCycleNanos();
+
+    long getEdgesExamined();
+
+    long getEdgesAccepted();
+
+    long getEdgesRejected();
+
+    long getCycleQueries();
+
+    long getCyclePathEdges();
+
+    long getMaxCyclePath();
+
+    /**Оценка памяти, которую занимает журнал шагов последнего запуска, в байтах.
+     */
+    long getStepHistoryBytes();
+
+    /**Краткая текстовая сводка всех метрик.
+     */
+    String getSummary();
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package src.logic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**Массив записей фиксированного размера вне кучи с индексом long.
+ * Один ByteBuffer ограничен 2^31 байт, поэтому записи лежат в кусках по степени двойки записей,
+ * и номер куска с позицией в нем получаются сдвигом и маской.
+ * Память освобождается вместе с буферами, сборщик мусора видит только массив ссылок на куски.
+ */
+final class OffHeapBuffer {
+    // Кусок не больше 2^30 байт
+    private static final int CHUNK_BYTES_LOG = 30;
+
+    private final ByteBuffer[] chunks;
+    private final int recordBytes;
+    private final int shift;
+    private final long mask;
+    private final long records;
+
+    private OffHeapBuffer(ByteBuffer[] chunks, int recordBytes, int shift, long records) {
+        this.chunks = chunks;
+        this.recordBytes = recordBytes;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        this.records = records;
+    }
+
+    /**Выделяет память вне кучи (прямые буферы) под records записей по recordBytes байт.
+     */
+    static OffHeapBuffer allocate(long records, int recordBytes) {
+        int shift = chunkShift(recordBytes);
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(records, shift)];
+        for (int c = 0; c < chunks.length; c++) {
+            long count = Math.min(1L << shift, records - ((long) c << shift));
+            chunks[c] = ByteBuffer.allocateDirect((int) (count * recordBytes)).order(ByteOrder.nativeOrder());
+        }
+        return new OffHeapBuffer(chunks, recordBytes, shift, records);
+    }
+
+    /**Отображает в память records записей файла, начиная с байта offset.
+     */
+    static OffHeapBuffer map(FileChannel channel, long offset, long records, int recordBytes,
+                             FileChannel.MapMode mode, ByteOrder order) throws IOException {
+        int shift = chunkShift(recordBytes);
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(records, shift)];
+        for (int c = 0; c < chunks.length; c++) {
+            long first = (long) c << shift;
+            long count = Math.min(1L << shift, records - first);
+            chunks[c] = channel.map(mode, offset + first * recordBytes, count * recordBytes).order(order);
+        }
+        return new OffHeapBuffer(chunks, recordBytes, shift, records);
+    }
+
+    private static int chunkShift(int recordBytes) {
+        // Наибольшая степень двойки записей, помещающаяся в кусок
+        return CHUNK_BYTES_LOG - (32 - Integer.numberOfLeadingZeros(recordBytes - 1));
+    }
+
+    private static int chunkCount(long records, int shift) {
+        long count = (records + (1L << shift) - 1) >>> shift;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком много записей: " + records);
+        }
+        return (int) count;
+    }
+
+    long records() {
+        return records;
+    }
+
+    int getInt(long record, int field) {
+        return chunks[(int) (record >>> shift)].getInt((int) (record & mask) * recordBytes + field);
+    }
+
+    void putInt(long record, int field, int value) {
+        chunks[(int) (record >>> shift)].putInt((int) (record & mask) * recordBytes + field, value);
+    }
+
+    long getLong(long record, int field) {
+        return chunks[(int) (record >>> shift)].getLong((int) (record & mask) * recordBytes + field);
+    }
+
+    void putLong(long record, int field, long value) {
+        chunks[(int) (record >>> shift)].putLong((int) (record & mask) * recordBytes + field, value);
+    }
+}
\ No newline at end of file
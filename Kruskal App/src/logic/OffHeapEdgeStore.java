@@ -0,0 +1,84 @@
+package src.logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**Хранилище ребер вне кучи: тройки int (src, dst, weight) по 12 байт, количество ребер - long.
+ * Память либо выделяется прямыми буферами, либо отображается из файла троек в little-endian
+ * (тот же, что читает ExternalKruskal), тогда ребра не копируются вовсе.
+ * На куче остается только массив ссылок на куски, поэтому паузы сборщика не зависят от числа ребер.
+ */
+public final class OffHeapEdgeStore {
+    static final int EDGE_BYTES = 12;
+    private static final int SRC = 0;
+    private static final int DST = 4;
+    private static final int WEIGHT = 8;
+
+    private final OffHeapBuffer edges;
+    private final boolean readOnly;
+    private long size;
+
+    private OffHeapEdgeStore(OffHeapBuffer edges, long size, boolean readOnly) {
+        this.edges = edges;
+        this.size = size;
+        this.readOnly = readOnly;
+    }
+
+    /**Создает пустое хранилище в прямой памяти.
+     * @param capacity сколько ребер можно добавить.
+     */
+    public static OffHeapEdgeStore allocate(long capacity) {
+        return new OffHeapEdgeStore(OffHeapBuffer.allocate(capacity, EDGE_BYTES), 0, false);
+    }
+
+    /**Отображает в память файл троек int (src, dst, weight) в little-endian, только для чтения.
+     * Файл можно закрыть сразу: отображение живет, пока живо хранилище.
+     */
+    public static OffHeapEdgeStore map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long bytes = channel.size();
+            if (bytes % EDGE_BYTES != 0) {
+                throw new IOException("Размер файла ребер " + bytes + " не кратен " + EDGE_BYTES);
+            }
+            long count = bytes / EDGE_BYTES;
+            OffHeapBuffer edges = OffHeapBuffer.map(channel, 0, count, EDGE_BYTES,
+                    FileChannel.MapMode.READ_ONLY, ByteOrder.LITTLE_ENDIAN);
+            return new OffHeapEdgeStore(edges, count, true);
+        }
+    }
+
+    /**Добавляет ребро.
+     * @return Номер ребра.
+     */
+    public long append(int u, int v, int w) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Хранилище отображено из файла только для чтения");
+        }
+        if (size == edges.records()) {
+            throw new IllegalStateException("Хранилище заполнено: " + size + " ребер");
+        }
+        edges.putInt(size, SRC, u);
+        edges.putInt(size, DST, v);
+        edges.putInt(size, WEIGHT, w);
+        return size++;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int src(long edge) {
+        return edges.getInt(edge, SRC);
+    }
+
+    public int dst(long edge) {
+        return edges.getInt(edge, DST);
+    }
+
+    public int weight(long edge) {
+        return edges.getInt(edge, WEIGHT);
+    }
+}
\ No newline at end of file
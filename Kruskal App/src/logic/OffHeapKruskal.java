@@ -0,0 +1,164 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Алгоритм Краскала над ребрами вне кучи (OffHeapEdgeStore).
+ * 1. Сортировка: поразрядная LSD по байтам веса, пары (вес, номер ребра) тоже лежат вне кучи.
+ *    Первый проход читает веса прямо из хранилища, байты, одинаковые у всех весов, пропускаются.
+ *    Сортировка устойчива, поэтому равные по весу ребра идут по возрастанию номера, как в Kruskal.
+ * 2. Проход по отсортированным номерам с union-find, концы ребер читаются из хранилища.
+ * На куче только O(V): система непересекающихся множеств и ребра MST.
+ * Буферы сортировки занимают до 24 байт на ребро прямой памяти, ее предел задает -XX:MaxDirectMemorySize
+ * (по умолчанию равен -Xmx).
+ */
+public class OffHeapKruskal {
+    // Запись сортировки: вес со сдвигом знака (int) и номер ребра (long)
+    private static final int PAIR_BYTES = 12;
+    private static final int PAIR_KEY = 0;
+    private static final int PAIR_EDGE = 4;
+    private static final int RADIX = 256;
+
+    private final OffHeapEdgeStore store;
+    private final int vertexCount;
+
+    private long[] mst = new long[0];
+    private int mstSize;
+    private long totalWeight;
+    private long sortNanos;
+    private long unionNanos;
+
+    /**
+     * @param store ребра графа.
+     * @param vertexCount количество вершин (номера от 0 до vertexCount-1).
+     */
+    public OffHeapKruskal(OffHeapEdgeStore store, int vertexCount) {
+        this.store = store;
+        this.vertexCount = vertexCount;
+    }
+
+    /**Строит минимальное остовное дерево (лес, если граф несвязный).
+     * @return Количество ребер в MST.
+     */
+    public int computeMST() {
+        long start = System.nanoTime();
+        long m = store.size();
+        OffHeapBuffer sorted = sort();
+        long afterSort = System.nanoTime();
+        sortNanos = afterSort - start;
+
+        mst = new long[Math.max(vertexCount - 1, 0)];
+        mstSize = 0;
+        totalWeight = 0;
+        DisjointSet components = new DisjointSet(vertexCount);
+        long examined = 0;
+        for (long i = 0; i < m && mstSize < mst.length; i++) {
+            long edge = sorted == null ? i : sorted.getLong(i, PAIR_EDGE);
+            int u = store.src(edge), v = store.dst(edge);
+            if (u < 0 || u >= vertexCount || v < 0 || v >= vertexCount) {
+                throw new IllegalArgumentException("Ребро " + edge + " (" + u + ", " + v + ") вне диапазона вершин");
+            }
+            examined++;
+            if (components.union(u, v)) {
+                mst[mstSize++] = edge;
+                totalWeight += store.weight(edge);
+            }
+        }
+        unionNanos = System.nanoTime() - afterSort;
+        MstMetrics.add(MstMetrics.Phase.SORT, sortNanos);
+        MstMetrics.add(MstMetrics.Phase.MST, unionNanos);
+        MstMetrics.countEdges(examined, mstSize, examined - mstSize);
+        mst = Arrays.copyOf(mst, mstSize);
+        return mstSize;
+    }
+
+    /**Сортирует номера ребер по весу.
+     * @return Пары (ключ, номер ребра) в порядке возрастания или null, если все веса равны и порядок - исходный.
+     */
+    private OffHeapBuffer sort() {
+        long m = store.size();
+        // Гистограммы всех четырех байтов за один проход
+        long[][] counts = new long[4][RADIX];
+        for (long e = 0; e < m; e++) {
+            int key = store.weight(e) ^ Integer.MIN_VALUE; // Отрицательные веса идут раньше
+            counts[0][key & 0xFF]++;
+            counts[1][(key >>> 8) & 0xFF]++;
+            counts[2][(key >>> 16) & 0xFF]++;
+            counts[3][key >>> 24]++;
+        }
+
+        OffHeapBuffer source = null;
+        OffHeapBuffer target = null;
+        OffHeapBuffer spare = null;
+        for (int pass = 0; pass < 4; pass++) {
+            long[] count = counts[pass];
+            if (isConstant(count, m)) {
+                continue;
+            }
+            int shift = pass * 8;
+            long[] offsets = new long[RADIX];
+            long sum = 0;
+            for (int b = 0; b < RADIX; b++) {
+                offsets[b] = sum;
+                sum += count[b];
+            }
+            if (source == null) {
+                target = OffHeapBuffer.allocate(m, PAIR_BYTES);
+                for (long e = 0; e < m; e++) {
+                    int key = store.weight(e) ^ Integer.MIN_VALUE;
+                    long at = offsets[(key >>> shift) & 0xFF]++;
+                    target.putInt(at, PAIR_KEY, key);
+                    target.putLong(at, PAIR_EDGE, e);
+                }
+            } else {
+                if (spare == null) {
+                    spare = OffHeapBuffer.allocate(m, PAIR_BYTES);
+                }
+                target = spare;
+                for (long i = 0; i < m; i++) {
+                    int key = source.getInt(i, PAIR_KEY);
+                    long at = offsets[(key >>> shift) & 0xFF]++;
+                    target.putInt(at, PAIR_KEY, key);
+                    target.putLong(at, PAIR_EDGE, source.getLong(i, PAIR_EDGE));
+                }
+                spare = source;
+            }
+            source = target;
+        }
+        return source;
+    }
+
+    private static boolean isConstant(long[] count, long m) {
+        for (long c : count) {
+            if (c == m) {
+                return true;
+            }
+        }
+        return m == 0;
+    }
+
+    public int getMstSize() {
+        return mstSize;
+    }
+
+    /**Номер i-го ребра MST в хранилище, ребра идут в порядке добавления.
+     */
+    public long mstEdge(int i) {
+        return mst[i];
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**Время сортировки ребер в последнем запуске, нс.
+     */
+    public long getSortNanos() {
+        return sortNanos;
+    }
+
+    /**Время прохода по ребрам с union-find в последнем запуске, нс.
+     */
+    public long getUnionNanos() {
+        return unionNanos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package src.logic;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**Параллельная обработка диапазона индексов [from, to) частями в пуле fork-join.
+ */
+final class ParallelBlocks {
+
+    interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private ParallelBlocks() {
+    }
+
+    /**Делит диапазон пополам, пока часть не станет не больше grain, и выполняет body для каждой части.
+     */
+    static void forRange(ForkJoinPool pool, int from, int to, int grain, RangeBody body) {
+        if (from >= to) {
+            return;
+        }
+        pool.invoke(new BlockTask(from, to, grain, body));
+    }
+
+    private static class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, grain;
+        private final RangeBody body;
+
+        BlockTask(int from, int to, int grain, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BlockTask(from, mid, grain, body), new BlockTask(mid, to, grain, body));
+        }
+    }
+}
\ No newline at end of file
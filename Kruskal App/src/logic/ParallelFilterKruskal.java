@@ -0,0 +1,194 @@
+package src.logic;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongPredicate;
+
+/**Параллельный Filter-Kruskal на ForkJoinPool.
+ * Ребра делятся по опорному весу на легкие и тяжелые. Сначала рекурсивно обрабатываются легкие,
+ * затем из тяжелых параллельно выбрасываются ребра, концы которых уже связаны, и обрабатывается остаток.
+ * Ребра рассматриваются в том же порядке (вес, id), что и в Kruskal, поэтому MST совпадает с последовательным.
+ */
+public class ParallelFilterKruskal implements MstAlgorithm {
+    // Меньшие диапазоны сортируются и обрабатываются последовательно
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+    // Минимальный размер блока при параллельном разбиении
+    private static final int MIN_BLOCK = 1 << 12;
+    private static final int PIVOT_SAMPLES = 31;
+    // Сколько элементов массива обрабатывает одна задача
+    private static final int ELEMENT_GRAIN = 1 << 13;
+
+    private final Graph graph;
+    private final ForkJoinPool pool;
+
+    private long[] keys;
+    private long[] buffer;
+    private boolean[] flags;
+    private DisjointSet components;
+    private int[] mst;
+    private int mstSize;
+    private long totalWeight;
+    private long examined;
+
+    public ParallelFilterKruskal(Graph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public ParallelFilterKruskal(Graph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    @Override
+    public int[] computeMST() {
+        long metric = MstMetrics.begin();
+        int m = graph.getEdgeCount();
+        int n = graph.getVertexCount();
+        int[] weight = graph.weightArray();
+
+        keys = new long[m];
+        buffer = new long[m];
+        flags = new boolean[m];
+        ParallelBlocks.forRange(pool, 0, m, ELEMENT_GRAIN, (from, to) -> {
+            for (int e = from; e < to; e++) {
+                keys[e] = ((long) weight[e] << 32) | e;
+            }
+        });
+
+        components = new DisjointSet(n);
+        mst = new int[Math.max(n - 1, 0)];
+        mstSize = 0;
+        totalWeight = 0;
+        examined = 0;
+
+        filterKruskal(0, m);
+        MstMetrics.end(MstMetrics.Phase.MST, metric);
+        // Ребра, выброшенные фильтром, не рассматривались, но тоже отброшены
+        MstMetrics.countEdges(examined, mstSize, m - mstSize);
+
+        int[] result = Arrays.copyOf(mst, mstSize);
+        keys = null;
+        buffer = null;
+        flags = null;
+        components = null;
+        return result;
+    }
+
+    /**Обрабатывает ребра keys[from..to) в порядке возрастания ключа.
+     */
+    private void filterKruskal(int from, int to) {
+        if (isComplete() || from >= to) {
+            return;
+        }
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            EdgeSorter.sort(keys, from, to, buffer, from);
+            kruskal(from, to);
+            return;
+        }
+        long pivot = choosePivot(from, to);
+        int light = partition(from, to, key -> key <= pivot);
+        filterKruskal(from, from + light);
+        if (isComplete()) {
+            return;
+        }
+        // Пока идет фильтр, union не вызывается, поэтому root можно читать параллельно
+        int alive = partition(from + light, to,
+                key -> components.root(graph.src((int) key)) != components.root(graph.dst((int) key)));
+        filterKruskal(from + light, from + light + alive);
+    }
+
+    private void kruskal(int from, int to) {
+        for (int i = from; i < to && !isComplete(); i++) {
+            examined++;
+            int edge = (int) keys[i];
+            if (components.union(graph.src(edge), graph.dst(edge))) {
+                mst[mstSize++] = edge;
+                totalWeight += graph.weight(edge);
+            }
+        }
+    }
+
+    private boolean isComplete() {
+        return mstSize == mst.length;
+    }
+
+    /**Медиана равномерной выборки ключей. Ключи различны, поэтому обе части разбиения непусты.
+     */
+    private long choosePivot(int from, int to) {
+        long[] sample = new long[PIVOT_SAMPLES];
+        long step = (long) (to - from) / PIVOT_SAMPLES;
+        for (int i = 0; i < PIVOT_SAMPLES; i++) {
+            sample[i] = keys[(int) (from + i * step)];
+        }
+        Arrays.sort(sample);
+        return sample[PIVOT_SAMPLES / 2];
+    }
+
+    /**Устойчивое параллельное разбиение keys[from..to): подходящие под условие ключи переносятся в начало.
+     * @return Количество ключей, удовлетворяющих условию.
+     */
+    private int partition(int from, int to, LongPredicate left) {
+        int len = to - from;
+        int blockSize = Math.max(MIN_BLOCK, len / (pool.getParallelism() * 4) + 1);
+        int blocks = (len + blockSize - 1) / blockSize;
+        int[] leftCounts = new int[blocks];
+
+        // 1. Проверяем условие и считаем подходящие ключи в каждом блоке
+        ParallelBlocks.forRange(pool, 0, blocks, 1, (firstBlock, lastBlock) -> {
+            for (int b = firstBlock; b < lastBlock; b++) {
+                int count = 0;
+                int end = Math.min(to, from + (b + 1) * blockSize);
+                for (int i = from + b * blockSize; i < end; i++) {
+                    boolean isLeft = left.test(keys[i]);
+                    flags[i] = isLeft;
+                    if (isLeft) {
+                        count++;
+                    }
+                }
+                leftCounts[b] = count;
+            }
+        });
+
+        // 2. Префиксные суммы дают начало каждого блока в левой и правой частях
+        int[] leftStart = new int[blocks];
+        int[] rightStart = new int[blocks];
+        int totalLeft = 0;
+        for (int b = 0; b < blocks; b++) {
+            leftStart[b] = totalLeft;
+            totalLeft += leftCounts[b];
+        }
+        int right = totalLeft;
+        for (int b = 0; b < blocks; b++) {
+            rightStart[b] = right;
+            right += Math.min(blockSize, len - b * blockSize) - leftCounts[b];
+        }
+
+        // 3. Раскладываем ключи в буфер и копируем обратно
+        ParallelBlocks.forRange(pool, 0, blocks, 1, (firstBlock, lastBlock) -> {
+            for (int b = firstBlock; b < lastBlock; b++) {
+                int l = from + leftStart[b];
+                int r = from + rightStart[b];
+                int end = Math.min(to, from + (b + 1) * blockSize);
+                for (int i = from + b * blockSize; i < end; i++) {
+                    if (flags[i]) {
+                        buffer[l++] = keys[i];
+                    } else {
+                        buffer[r++] = keys[i];
+                    }
+                }
+            }
+        });
+        ParallelBlocks.forRange(pool, from, to, ELEMENT_GRAIN, (start, end) -> System.arraycopy(buffer, start, keys, start, end - start));
+        return totalLeft;
+    }
+
+    @Override
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public StepLog getStepLog() {
+        return null;
+    }
+}
\ No newline at end of file
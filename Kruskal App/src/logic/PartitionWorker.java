@@ -0,0 +1,62 @@
+package src.logic;
+
+import java.io.*;
+
+/**Процесс-исполнитель для PartitionedKruskal: читает часть ребер из stdin и пишет в stdout
+ * ребра минимального остовного леса этой части.
+ * Протокол (DataInput/DataOutput):
+ * запрос - MAGIC, количество вершин n, номер первого ребра части first, количество ребер m, m троек (src, dst, weight);
+ * ответ - MAGIC, количество ребер леса k, k глобальных номеров ребер (first + номер в части).
+ * Ребра части идут подряд по глобальным номерам, поэтому равные веса разрешаются так же, как в общем Kruskal.
+ */
+public final class PartitionWorker {
+    static final int MAGIC = 0x4B505754; // "KPWT"
+    private static final int IO_BUFFER = 1 << 16;
+
+    private PartitionWorker() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(System.in, IO_BUFFER));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out, IO_BUFFER));
+            serve(in, out);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ошибка исполнителя: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**Обрабатывает один запрос.
+     */
+    static void serve(DataInput in, DataOutput out) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Неверная сигнатура запроса");
+        }
+        int n = in.readInt();
+        int first = in.readInt();
+        int m = in.readInt();
+        if (n < 0 || m < 0) {
+            throw new IOException("Некорректный размер части: " + n + " вершин, " + m + " ребер");
+        }
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        int[] weight = new int[m];
+        for (int e = 0; e < m; e++) {
+            src[e] = in.readInt();
+            dst[e] = in.readInt();
+            weight[e] = in.readInt();
+            if (src[e] < 0 || src[e] >= n || dst[e] < 0 || dst[e] >= n) {
+                throw new IOException("Ребро " + (first + e) + " ссылается на несуществующую вершину");
+            }
+        }
+
+        int[] forest = new Kruskal(new Graph(n, src, dst, weight, m), false).computeMST();
+        out.writeInt(MAGIC);
+        out.writeInt(forest.length);
+        for (int edge : forest) {
+            out.writeInt(first + edge);
+        }
+    }
+}
\ No newline at end of file
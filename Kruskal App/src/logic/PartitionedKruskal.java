@@ -0,0 +1,205 @@
+package src.logic;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**Краскал, разделенный между несколькими процессами JVM.
+ * 1. Ребра делятся на workers непрерывных по номерам частей, каждая отправляется своему процессу PartitionWorker.
+ * 2. Исполнители параллельно строят минимальный остовный лес своей части.
+ * 3. Ребро, не попавшее в лес своей части, замыкает цикл из более легких ребер (по ключу (вес, id))
+ *    и поэтому не входит в общий MST. Остается Kruskal по объединению лесов - не больше workers * (n - 1) ребер.
+ * Ребра сравниваются по тому же ключу (вес, id), что и в Kruskal, поэтому MST и вес совпадают с однопроцессным.
+ * Обмен идет через каналы stdin/stdout процессов, stderr исполнителей выводится в stderr координатора.
+ */
+public class PartitionedKruskal implements MstAlgorithm {
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final Graph graph;
+    private final int workers;
+    private final List<String> command;
+    private long totalWeight;
+    private int candidates;
+
+    /**Исполнители запускаются той же JVM с тем же classpath.
+     * @param workers количество процессов-исполнителей.
+     */
+    public PartitionedKruskal(Graph graph, int workers) {
+        this(graph, workers, List.of(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                PartitionWorker.class.getName()));
+    }
+
+    /**
+     * @param command команда запуска исполнителя, например через ssh для другого узла.
+     */
+    public PartitionedKruskal(Graph graph, int workers, List<String> command) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один исполнитель: " + workers);
+        }
+        this.graph = graph;
+        this.workers = workers;
+        this.command = command;
+    }
+
+    @Override
+    public int[] computeMST() {
+        try {
+            return merge(collectForests());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    /**Запускает исполнителей, отправляет им части и собирает номера ребер их лесов.
+     */
+    private int[] collectForests() throws IOException {
+        int m = graph.getEdgeCount();
+        int parts = Math.max(1, Math.min(workers, m));
+        Process[] processes = new Process[parts];
+        Thread[] senders = new Thread[parts];
+        IOException[] sendErrors = new IOException[parts];
+        try {
+            for (int p = 0; p < parts; p++) {
+                ProcessBuilder builder = new ProcessBuilder(command);
+                builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+                processes[p] = builder.start();
+            }
+            // Части пишутся параллельно, чтобы исполнители начинали считать, не дожидаясь друг друга
+            for (int p = 0; p < parts; p++) {
+                int part = p;
+                int from = (int) ((long) m * p / parts);
+                int to = (int) ((long) m * (p + 1) / parts);
+                senders[p] = new Thread(() -> {
+                    try {
+                        send(processes[part].getOutputStream(), from, to);
+                    } catch (IOException e) {
+                        sendErrors[part] = e;
+                    }
+                }, "partition-sender-" + p);
+                senders[p].start();
+            }
+
+            int[][] forests = new int[parts][];
+            int size = 0;
+            for (int p = 0; p < parts; p++) {
+                try {
+                    forests[p] = receive(processes[p].getInputStream());
+                } catch (EOFException e) {
+                    // Исполнитель закрыл stdout раньше времени - причину дает его код завершения
+                    int exit = processes[p].waitFor();
+                    throw new IOException(exit != 0
+                            ? "Исполнитель части " + p + " завершился с кодом " + exit + ", не передав лес"
+                            : "Ответ исполнителя части " + p + " обрезан");
+                }
+                senders[p].join();
+                if (sendErrors[p] != null) {
+                    throw sendErrors[p];
+                }
+                int exit = processes[p].waitFor();
+                if (exit != 0) {
+                    throw new IOException("Исполнитель части " + p + " завершился с кодом " + exit);
+                }
+                size += forests[p].length;
+            }
+            int[] result = new int[size];
+            int at = 0;
+            for (int[] forest : forests) {
+                System.arraycopy(forest, 0, result, at, forest.length);
+                at += forest.length;
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание исполнителей прервано");
+        } finally {
+            for (Process process : processes) {
+                if (process != null && process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private void send(OutputStream stream, int from, int to) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, IO_BUFFER))) {
+            out.writeInt(PartitionWorker.MAGIC);
+            out.writeInt(graph.getVertexCount());
+            out.writeInt(from);
+            out.writeInt(to - from);
+            for (int e = from; e < to; e++) {
+                out.writeInt(graph.src(e));
+                out.writeInt(graph.dst(e));
+                out.writeInt(graph.weight(e));
+            }
+        }
+    }
+
+    private int[] receive(InputStream stream) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream, IO_BUFFER))) {
+            if (in.readInt() != PartitionWorker.MAGIC) {
+                throw new IOException("Неверная сигнатура ответа исполнителя");
+            }
+            int count = in.readInt();
+            if (count < 0 || count >= Math.max(graph.getVertexCount(), 1)) {
+                throw new IOException("Некорректный размер леса: " + count);
+            }
+            int[] forest = new int[count];
+            for (int i = 0; i < count; i++) {
+                forest[i] = in.readInt();
+                if (forest[i] < 0 || forest[i] >= graph.getEdgeCount()) {
+                    throw new IOException("Исполнитель вернул несуществующее ребро " + forest[i]);
+                }
+            }
+            return forest;
+        }
+    }
+
+    /**Kruskal по объединению лесов частей.
+     */
+    private int[] merge(int[] forestEdges) {
+        long metric = MstMetrics.begin();
+        int n = graph.getVertexCount();
+        candidates = forestEdges.length;
+        long[] keys = new long[candidates];
+        for (int i = 0; i < candidates; i++) {
+            keys[i] = ((long) graph.weight(forestEdges[i]) << 32) | forestEdges[i];
+        }
+        EdgeSorter.sort(keys, 0, candidates);
+
+        int[] mst = new int[Math.max(n - 1, 0)];
+        int mstSize = 0;
+        totalWeight = 0;
+        DisjointSet components = new DisjointSet(n);
+        int examined = 0;
+        for (int i = 0; i < candidates && mstSize < mst.length; i++) {
+            examined++;
+            int edge = (int) keys[i];
+            if (components.union(graph.src(edge), graph.dst(edge))) {
+                mst[mstSize++] = edge;
+                totalWeight += graph.weight(edge);
+            }
+        }
+        MstMetrics.end(MstMetrics.Phase.MST, metric);
+        MstMetrics.countEdges(examined, mstSize, examined - mstSize);
+        return Arrays.copyOf(mst, mstSize);
+    }
+
+    /**Сколько ребер лесов частей пришло на слияние в последнем запуске.
+     */
+    public int getCandidateCount() {
+        return candidates;
+    }
+
+    @Override
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public StepLog getStepLog() {
+        return null;
+    }
+}
\ No newline at end of file
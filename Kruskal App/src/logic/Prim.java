@@ -0,0 +1,237 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Алгоритм Прима за O(n^2) для плотных графов, работающий прямо на матрице весов int[n*n].
+ * Объекты ребер не создаются и сортировка не нужна.
+ * Два режима:
+ * - по матрице смежности из файла: 0 в ячейке означает отсутствие ребра,
+ *   идентификатор ребра (i, j) при i < j - номер ячейки i * n + j;
+ * - по графу Graph: хранится только верхний треугольник n(n-1)/2 с id ребер графа (веса берутся из графа),
+ *   ведется журнал шагов. Для разреженного графа большая матрица не строится - для него есть Краскал.
+ */
+public class Prim implements MstAlgorithm {
+    // Доля заполненности, начиная с которой Прим на матрице выгоднее сортировки ребер
+    public static final double DENSITY_THRESHOLD = 0.25;
+    // Матрица n*n должна индексироваться int
+    public static final int MAX_VERTICES = 46340;
+    // Матрицу до стольких ячеек строим для любого графа, хоть и разреженного (нарисованного вручную)
+    private static final long SMALL_TRIANGLE = 1 << 20;
+    // Прогресс сообщается раз в столько вершин
+    private static final int PROGRESS_INTERVAL = 64;
+
+    private final int n;
+    private final int[] weights; // null в режиме графа
+    private final int[] edgeIds; // id ребра графа в ячейке треугольника или -1, null в режиме матрицы
+    private final Graph graph;
+    private final StepLog stepLog;
+
+    private int[] parent = new int[0];
+    private long totalWeight;
+    private ProgressListener progress;
+
+    /**Режим матрицы смежности.
+     * @param n количество вершин.
+     * @param weights матрица весов по строкам, 0 - ребра нет. Используется верхний треугольник.
+     */
+    public Prim(int n, int[] weights) {
+        if ((long) n * n != weights.length) {
+            throw new IllegalArgumentException("Размер матрицы " + weights.length + " не равен " + n + "x" + n);
+        }
+        this.n = n;
+        this.weights = weights;
+        this.edgeIds = null;
+        this.graph = null;
+        this.stepLog = null;
+    }
+
+    /**Режим графа: из параллельных ребер в треугольник попадает наименьшее по (вес, id).
+     * @throws IllegalArgumentException если граф разреженный и матрица велика или она не помещается в куче.
+     */
+    public Prim(Graph graph, boolean recordSteps) {
+        this.n = graph.getVertexCount();
+        String reason = rejectReason(n, graph.getEdgeCount());
+        if (reason != null) {
+            throw new IllegalArgumentException(reason);
+        }
+        this.graph = graph;
+        this.stepLog = recordSteps ? new StepLog(graph) : null;
+        this.weights = null;
+        this.edgeIds = new int[(int) triangleSize(n)];
+        Arrays.fill(edgeIds, -1);
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int u = graph.src(e);
+            int v = graph.dst(e);
+            if (u == v) {
+                continue;
+            }
+            int cell = cell(u, v);
+            int old = edgeIds[cell];
+            if (old == -1 || graph.weight(e) < graph.weight(old)) {
+                edgeIds[cell] = e;
+            }
+        }
+    }
+
+    /**Можно ли построить Прим в режиме графа для n вершин и m ребер.
+     */
+    public static boolean supports(int n, long m) {
+        return rejectReason(n, m) == null;
+    }
+
+    private static String rejectReason(int n, long m) {
+        if (n > MAX_VERTICES) {
+            return "Слишком много вершин для матрицы Прима: " + n + ", используйте Краскал";
+        }
+        long cells = triangleSize(n);
+        if (cells > SMALL_TRIANGLE && !isDense(n, m)) {
+            return "Граф слишком разреженный для Прима на матрице (" + m + " ребер при " + n
+                    + " вершинах, матрица " + (4 * cells >> 20) + " МБ), используйте Краскал";
+        }
+        if (4 * cells > Runtime.getRuntime().maxMemory()) {
+            return "Матрица Прима (" + (4 * cells >> 20) + " МБ) не помещается в куче ("
+                    + (Runtime.getRuntime().maxMemory() >> 20) + " МБ), используйте Краскал";
+        }
+        return null;
+    }
+
+    private static long triangleSize(int n) {
+        return (long) n * (n - 1) / 2;
+    }
+
+    /**Стоит ли выбирать Прим для графа с n вершинами и m ребрами.
+     */
+    public static boolean isDense(int n, long m) {
+        if (n < 2 || n > MAX_VERTICES) {
+            return false;
+        }
+        return m >= DENSITY_THRESHOLD * ((long) n * (n - 1) / 2);
+    }
+
+    @Override
+    public int[] computeMST() {
+        long metric = MstMetrics.begin();
+        long relaxed = 0;
+        int[] best = new int[n];      // Вес лучшего ребра до дерева
+        int[] bestCell = new int[n];  // Ячейка матрицы этого ребра, -1 если ребра нет
+        int[] bestFrom = new int[n];  // Вершина дерева на другом конце этого ребра
+        boolean[] used = new boolean[n];
+        Arrays.fill(bestCell, -1);
+        parent = new int[n];
+        Arrays.fill(parent, -1);
+
+        int[] mst = new int[Math.max(n - 1, 0)];
+        int mstSize = 0;
+        totalWeight = 0;
+
+        for (int iteration = 0; iteration < n; iteration++) {
+            if (progress != null && iteration % PROGRESS_INTERVAL == 0) {
+                progress.onProgress(iteration, n, mstSize);
+            }
+            // Ближайшая к дереву вершина; если таких нет - новый корень (граф несвязный)
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!used[v] && (u == -1 || closer(v, u, best, bestCell))) {
+                    u = v;
+                }
+            }
+            used[u] = true;
+            if (bestCell[u] != -1) {
+                int cell = bestCell[u];
+                parent[u] = bestFrom[u];
+                int edge = edgeIds == null ? cell : edgeIds[cell];
+                mst[mstSize++] = edge;
+                totalWeight += best[u];
+                if (stepLog != null) {
+                    stepLog.append(edge, true);
+                }
+            }
+
+            // Обновляем расстояния по строке u (ячейки берем из верхнего треугольника)
+            for (int v = 0; v < n; v++) {
+                if (used[v]) {
+                    continue;
+                }
+                int cell = cell(u, v);
+                if (!hasEdge(cell)) {
+                    continue;
+                }
+                int w = weight(cell);
+                relaxed++;
+                if (bestCell[v] == -1 || w < best[v] || (w == best[v] && edgeKey(cell) < edgeKey(bestCell[v]))) {
+                    best[v] = w;
+                    bestCell[v] = cell;
+                    bestFrom[v] = u;
+                }
+            }
+        }
+        if (progress != null) {
+            progress.onProgress(n, n, mstSize);
+        }
+        MstMetrics.end(MstMetrics.Phase.MST, metric);
+        // Прим не отбрасывает ребра: рассмотренными считаются ребра, по которым обновлялись расстояния
+        MstMetrics.countEdges(relaxed, mstSize, 0);
+        if (stepLog != null) {
+            MstMetrics.recordStepHistory(stepLog);
+        }
+        return Arrays.copyOf(mst, mstSize);
+    }
+
+    @Override
+    public void setProgressListener(ProgressListener listener) {
+        this.progress = listener;
+    }
+
+    /**Ячейка пары вершин: в режиме матрицы - i * n + j, в режиме графа - номер в верхнем треугольнике по строкам.
+     */
+    private int cell(int u, int v) {
+        int i = Math.min(u, v);
+        int j = Math.max(u, v);
+        if (edgeIds == null) {
+            return i * n + j;
+        }
+        return (int) ((long) i * (2L * n - i - 1) / 2 + (j - i - 1));
+    }
+
+    private int weight(int cell) {
+        return edgeIds == null ? weights[cell] : graph.weight(edgeIds[cell]);
+    }
+
+    private boolean hasEdge(int cell) {
+        return edgeIds == null ? weights[cell] != 0 : edgeIds[cell] != -1;
+    }
+
+    // Равные по весу ребра сравниваются по id, как в Kruskal
+    private int edgeKey(int cell) {
+        return edgeIds == null ? cell : edgeIds[cell];
+    }
+
+    private boolean closer(int a, int b, int[] best, int[] bestCell) {
+        if (bestCell[a] == -1) {
+            return false;
+        }
+        if (bestCell[b] == -1) {
+            return true;
+        }
+        if (best[a] != best[b]) {
+            return best[a] < best[b];
+        }
+        return edgeKey(bestCell[a]) < edgeKey(bestCell[b]);
+    }
+
+    /**Родитель каждой вершины в построенном лесу, -1 для корней.
+     */
+    public int[] getParent() {
+        return parent;
+    }
+
+    @Override
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public StepLog getStepLog() {
+        return stepLog;
+    }
+}
\ No newline at end of file
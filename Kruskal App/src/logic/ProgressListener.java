@@ -0,0 +1,16 @@
+package src.logic;
+
+/**Получатель прогресса длительного построения MST.
+ * Вызывается из потока вычисления, поэтому обновлять интерфейс нужно через EDT.
+ * Чтобы прервать вычисление, реализация может бросить CancellationException.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * @param done сколько единиц работы выполнено (ребер для Краскала и Борувки, вершин для Прима).
+     * @param total всего единиц работы.
+     * @param mstSize сколько ребер уже включено в MST.
+     */
+    void onProgress(long done, long total, int mstSize);
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package src.logic;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**Генератор случайных связных графов с воспроизводимым результатом: одинаковое зерно дает одинаковый граф.
+ * 1. Случайное остовное дерево на первых min(m, n) вершинах (как раньше в GraphPanel).
+ * 2. Остальные ребра:
+ *    - для разреженных графов кандидаты генерируются параллельно блоками фиксированного размера,
+ *      у каждого блока свой поток случайных чисел, зависящий только от зерна и номера блока;
+ *      дубликаты отсекаются множеством упакованных в long пар вершин в порядке блоков,
+ *      поэтому результат не зависит от количества потоков;
+ *    - для плотных (больше половины всех пар) - последовательная выборка Кнута (алгоритм S) по всем парам.
+ */
+public class RandomGraphGenerator {
+    private static final int CHUNK = 1 << 14;
+    private static final int MAX_BATCH = 1 << 22;
+
+    private final long seed;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int minWeight = 1;
+    private int maxWeight = 20;
+
+    public RandomGraphGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**Задает пул потоков для генерации кандидатов.
+     */
+    public RandomGraphGenerator setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**Задает диапазон весов ребер [min, max].
+     */
+    public RandomGraphGenerator setWeights(int min, int max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Пустой диапазон весов: " + min + " .. " + max);
+        }
+        this.minWeight = min;
+        this.maxWeight = max;
+        return this;
+    }
+
+    /**Максимальное число ребер в простом неориентированном графе: n*(n-1)/2.
+     */
+    public static long maxEdges(int numVert) {
+        return (long) numVert * (numVert - 1) / 2;
+    }
+
+    /**Генерирует граф.
+     * @param numVert количество вершин.
+     * @param numEdges количество ребер, от 0 до maxEdges(numVert).
+     */
+    public Graph generate(int numVert, long numEdges) {
+        if (numVert < 1) {
+            throw new IllegalArgumentException("Необходимо numVert ≥ 1");
+        }
+        long max = maxEdges(numVert);
+        if (numEdges < 0 || numEdges > max || numEdges > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Число рёбер должно быть в диапазоне [0 .. " + max + "]");
+        }
+        boolean dense = numEdges * 2 > max;
+        if (!dense && numEdges > LongHashSet.MAX_SIZE) {
+            // Разреженный путь отсекает дубликаты множеством пар, а оно вмещает не больше MAX_SIZE ключей
+            throw new IllegalArgumentException("Число рёбер должно быть в диапазоне [0 .. " + LongHashSet.MAX_SIZE
+                    + "] или больше половины всех пар (" + max / 2 + ")");
+        }
+        int m = (int) numEdges;
+        Graph graph = new Graph(numVert, Math.max(m, 1));
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        // 1. Связное дерево на случайно перемешанных вершинах
+        int k = Math.min(m, numVert);
+        int[] order = new int[k];
+        for (int i = 0; i < k; i++) {
+            order[i] = i;
+        }
+        for (int i = k - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        LongHashSet used = new LongHashSet(dense ? k : m);
+        for (int i = 1; i < k; i++) {
+            int v1 = order[i];
+            int v2 = order[rand.nextInt(i)];
+            graph.addEdge(v1, v2, nextWeight(rand));
+            used.add(pairKey(v1, v2));
+        }
+
+        // 2. Добавляем случайные рёбра до нужного числа
+        int remaining = m - graph.getEdgeCount();
+        if (remaining > 0) {
+            if (dense) {
+                selectAllPairs(graph, used, remaining, max - used.size(), rand);
+            } else {
+                sampleParallel(graph, used, remaining);
+            }
+        }
+        return graph;
+    }
+
+    /**Алгоритм S: проходим все пары по порядку и берем каждую с вероятностью need / осталось.
+     */
+    private void selectAllPairs(Graph graph, LongHashSet used, int need, long candidates, SplittableRandom rand) {
+        int n = graph.getVertexCount();
+        for (int i = 0; i < n && need > 0; i++) {
+            for (int j = i + 1; j < n && need > 0; j++) {
+                if (used.contains(pairKey(i, j))) {
+                    continue;
+                }
+                if (rand.nextLong(candidates) < need) {
+                    graph.addEdge(i, j, nextWeight(rand));
+                    need--;
+                }
+                candidates--;
+            }
+        }
+    }
+
+    /**Параллельная генерация кандидатов с последовательным отсевом дубликатов в порядке блоков.
+     */
+    private void sampleParallel(Graph graph, LongHashSet used, int need) {
+        int n = graph.getVertexCount();
+        // Номера блоков только растут, чтобы повторные раунды не воспроизводили уже использованные потоки
+        long nextChunk = 0;
+        while (need > 0) {
+            int want = (int) Math.min(MAX_BATCH, need + need / 4L + 1024);
+            int chunks = (want + CHUNK - 1) / CHUNK;
+            long[] keys = new long[chunks * CHUNK];
+            int[] weights = new int[chunks * CHUNK];
+            long firstChunk = nextChunk;
+            nextChunk += chunks;
+            ParallelBlocks.forRange(pool, 0, chunks, 1, (from, to) -> {
+                for (int c = from; c < to; c++) {
+                    SplittableRandom chunkRandom = new SplittableRandom(mix(seed ^ mix(firstChunk + c + 1)));
+                    for (int i = c * CHUNK, end = i + CHUNK; i < end; i++) {
+                        int u, v;
+                        do {
+                            u = chunkRandom.nextInt(n);
+                            v = chunkRandom.nextInt(n);
+                        } while (u == v);
+                        keys[i] = pairKey(u, v);
+                        weights[i] = nextWeight(chunkRandom);
+                    }
+                }
+            });
+            for (int i = 0; i < keys.length && need > 0; i++) {
+                if (used.add(keys[i])) {
+                    graph.addEdge((int) (keys[i] >>> 32), (int) keys[i], weights[i]);
+                    need--;
+                }
+            }
+        }
+    }
+
+    private int nextWeight(SplittableRandom rand) {
+        return minWeight + (int) rand.nextLong((long) maxWeight - minWeight + 1);
+    }
+
+    /**Упаковывает неупорядоченную пару вершин в long: (min << 32) | max.
+     */
+    static long pairKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    /**Перемешивание splitmix64: для зерен блоков и хеширования ключей.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package src.logic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**Двоичный снимок сеанса редактора: граф с координатами и подписями вершин, свободные подписи,
+ * выбранный алгоритм, журнал шагов и текущий шаг.
+ * Заголовок (little-endian int): сигнатура KSES, версия, n, m, количество свободных подписей, счетчик подписей,
+ * номер алгоритма, текущий шаг, количество шагов (-1 если журнала нет), количество раундов.
+ * Затем массивы int подряд: x[n], y[n], labels[n], freeLabels[], src[m], dst[m], weight[m],
+ * stepEdges[шаги], флаги включения по 32 в int, roundEnds[раунды].
+ * Чтение, как и в GraphFile, отображает файл в память и копирует массивы целиком.
+ * Журнал восстанавливается повтором шагов, без запуска алгоритма.
+ */
+public final class SessionFile {
+    public static final int MAGIC = 0x5345534B; // "KSES" в little-endian
+    public static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 10;
+    private static final int HEADER_BYTES = HEADER_INTS * 4;
+
+    /**Содержимое сеанса. Координаты и подписи индексируются номерами вершин графа.
+     * @param stepLog журнал шагов по ребрам graph или null.
+     * @param currentStep текущий шаг просмотра, -1 если алгоритм не запускался.
+     */
+    public record Session(Graph graph, int[] x, int[] y, int[] freeLabels, int labelCounter,
+                          MstEngine engine, StepLog stepLog, int currentStep) {
+    }
+
+    private SessionFile() {
+    }
+
+    /**Проверяет по сигнатуре, является ли файл снимком сеанса.
+     */
+    public static boolean isSessionFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return false;
+            }
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC;
+        }
+    }
+
+    public static void write(Session session, File file) throws IOException {
+        Graph graph = session.graph();
+        int n = graph.getVertexCount();
+        int m = graph.getEdgeCount();
+        StepLog log = session.stepLog();
+        int steps = log == null ? -1 : log.size();
+        int rounds = log == null ? 0 : log.getRoundCount();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m)
+                    .putInt(session.freeLabels().length).putInt(session.labelCounter())
+                    .putInt(session.engine().ordinal()).putInt(session.currentStep())
+                    .putInt(steps).putInt(rounds);
+            header.flip();
+            GraphFile.writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            int[] labels = new int[n];
+            for (int v = 0; v < n; v++) {
+                labels[v] = graph.label(v);
+            }
+            GraphFile.writeInts(channel, buffer, session.x(), n);
+            GraphFile.writeInts(channel, buffer, session.y(), n);
+            GraphFile.writeInts(channel, buffer, labels, n);
+            GraphFile.writeInts(channel, buffer, session.freeLabels(), session.freeLabels().length);
+            GraphFile.writeInts(channel, buffer, graph.srcArray(), m);
+            GraphFile.writeInts(channel, buffer, graph.dstArray(), m);
+            GraphFile.writeInts(channel, buffer, graph.weightArray(), m);
+
+            if (log != null) {
+                int[] stepEdges = new int[steps];
+                int[] acceptedBits = new int[(steps + 31) / 32];
+                for (int i = 0; i < steps; i++) {
+                    stepEdges[i] = log.stepEdge(i);
+                    if (log.stepAccepted(i)) {
+                        acceptedBits[i >>> 5] |= 1 << (i & 31);
+                    }
+                }
+                int[] roundEnds = new int[rounds];
+                for (int i = 0; i < rounds; i++) {
+                    roundEnds[i] = log.roundEnd(i);
+                }
+                GraphFile.writeInts(channel, buffer, stepEdges, steps);
+                GraphFile.writeInts(channel, buffer, acceptedBits, acceptedBits.length);
+                GraphFile.writeInts(channel, buffer, roundEnds, rounds);
+            }
+        }
+    }
+
+    /**Читает сеанс, отображая файл в память.
+     */
+    public static Session read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Файл слишком короткий для заголовка сеанса");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Файл не является снимком сеанса");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия сеанса: " + version);
+            }
+            int n = header.getInt();
+            int m = header.getInt();
+            int freeCount = header.getInt();
+            int labelCounter = header.getInt();
+            int engineIndex = header.getInt();
+            int currentStep = header.getInt();
+            int steps = header.getInt();
+            int rounds = header.getInt();
+            if (n < 0 || m < 0 || freeCount < 0 || steps < -1 || rounds < 0
+                    || engineIndex < 0 || engineIndex >= MstEngine.values().length) {
+                throw new IOException("Некорректный заголовок сеанса");
+            }
+            long expected = HEADER_BYTES + 4L * (3L * n + freeCount + 3L * m)
+                    + (steps < 0 ? 0 : 4L * (steps + (steps + 31) / 32 + rounds));
+            if (channel.size() < expected) {
+                throw new IOException("Файл обрезан: " + channel.size() + " байт вместо " + expected);
+            }
+
+            long offset = HEADER_BYTES;
+            int[] x = GraphFile.readInts(channel, offset, n);
+            offset += 4L * n;
+            int[] y = GraphFile.readInts(channel, offset, n);
+            offset += 4L * n;
+            int[] labels = GraphFile.readInts(channel, offset, n);
+            offset += 4L * n;
+            int[] freeLabels = GraphFile.readInts(channel, offset, freeCount);
+            offset += 4L * freeCount;
+            int[] src = GraphFile.readInts(channel, offset, m);
+            offset += 4L * m;
+            int[] dst = GraphFile.readInts(channel, offset, m);
+            offset += 4L * m;
+            int[] weight = GraphFile.readInts(channel, offset, m);
+            offset += 4L * m;
+            for (int e = 0; e < m; e++) {
+                if (src[e] < 0 || src[e] >= n || dst[e] < 0 || dst[e] >= n) {
+                    throw new IOException("Ребро " + e + " ссылается на несуществующую вершину");
+                }
+            }
+            Graph graph = new Graph(n, src, dst, weight, m);
+            for (int v = 0; v < n; v++) {
+                graph.setLabel(v, labels[v]);
+            }
+
+            StepLog log = null;
+            if (steps >= 0) {
+                int[] stepEdges = GraphFile.readInts(channel, offset, steps);
+                offset += 4L * steps;
+                int[] acceptedBits = GraphFile.readInts(channel, offset, (steps + 31) / 32);
+                offset += 4L * acceptedBits.length;
+                int[] roundEnds = GraphFile.readInts(channel, offset, rounds);
+
+                // Повтор шагов заново строит префиксы и контрольные точки журнала
+                log = new StepLog(graph);
+                int round = 0;
+                for (int i = 0; i < steps; i++) {
+                    if (stepEdges[i] < 0 || stepEdges[i] >= m) {
+                        throw new IOException("Шаг " + i + " ссылается на несуществующее ребро");
+                    }
+                    log.append(stepEdges[i], (acceptedBits[i >>> 5] & (1 << (i & 31))) != 0);
+                    while (round < rounds && roundEnds[round] == i + 1) {
+                        log.endRound();
+                        round++;
+                    }
+                }
+            }
+            return new Session(graph, x, y, freeLabels, labelCounter,
+                    MstEngine.values()[engineIndex], log, currentStep);
+        }
+    }
+}
\ No newline at end of file
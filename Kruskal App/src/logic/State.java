@@ -1,67 +1,68 @@
 package src.logic;
 
-import java.util.*;
-import src.gui.GraphPanel;
-
-public record State( List<GraphPanel.Edge> includedEdges, List<GraphPanel.Edge> excludedEdges,  int totalWeight,
-                     GraphPanel.Edge currentEdge, boolean isIncluded, List<GraphPanel.Edge> cycleEdges) {
-    public State(
-            List<GraphPanel.Edge> includedEdges,
-            List<GraphPanel.Edge> excludedEdges,
-            int totalWeight,
-            GraphPanel.Edge currentEdge,
-            boolean isIncluded,
-            List<GraphPanel.Edge> cycleEdges
-    ) {
-        this.includedEdges = new ArrayList<>(includedEdges);
-        this.excludedEdges = new ArrayList<>(excludedEdges);
-        this.totalWeight = totalWeight;
-        this.currentEdge = currentEdge;
-        this.isIncluded = isIncluded;
-        this.cycleEdges = new ArrayList<>(cycleEdges);
-    }
+/**Состояние алгоритма после шага step, восстановленное из журнала StepLog.
+ * Списки ребер не копируются: включенные ребра - первые includedCount записей журнала,
+ * отброшенные - первые excludedCount.
+ */
+public record State(StepLog log, int step, int currentEdge, boolean isIncluded,
+                    int includedCount, int excludedCount, long totalWeight) {
+    public static final int[] NO_EDGES = new int[0];
+    public static final int NO_EDGE = -1;
 
     @Override
     public String toString() {
-        String finalString = "";
+        Graph graph = log.getGraph();
+        StringBuilder finalString = new StringBuilder();
+
+        if (log.getRoundCount() > 0 && currentEdge != NO_EDGE) {
+            finalString.append("Раунд: ").append(log.roundOf(step)).append("\n");
+        }
 
-        finalString += "Текущее ребро: " + (currentEdge != null ? currentEdge.v1.label + " - " + currentEdge.v2.label : "None") + "\n";
-        finalString += "Включеные ребра: ";
-        if (includedEdges.isEmpty()) {
-            finalString += "------------\n";
+        finalString.append("Текущее ребро: ").append(currentEdge != NO_EDGE ? graph.edgeToString(currentEdge) : "None").append("\n");
+        finalString.append("Включеные ребра: ");
+        if (includedCount == 0) {
+            finalString.append("------------\n");
         } else {
-            for (GraphPanel.Edge edge : includedEdges) {
-                finalString += edge.v1.label + " - " + edge.v2.label + "; ";
+            for (int i = 0; i < includedCount; i++) {
+                finalString.append(graph.edgeToString(log.acceptedEdge(i))).append("; ");
             }
-            finalString += "\n";
+            finalString.append("\n");
         }
-        finalString += "Суммарный вес: " + totalWeight + "\n";
+        finalString.append("Суммарный вес: ").append(totalWeight).append("\n");
         if (isIncluded) {
-            finalString += "Ребро включено.\n";
+            finalString.append("Ребро включено.\n");
         } else {
-            finalString += "Ребро не включено.\n";
-            finalString += "Ребра цикла: ";
-            for (GraphPanel.Edge edge : cycleEdges) {
-                finalString += edge.v1.label + " - " + edge.v2.label + "; ";
+            finalString.append("Ребро не включено.\n");
+            finalString.append("Ребра цикла: ");
+            for (int edge : getCycleEdges()) {
+                finalString.append(graph.edgeToString(edge)).append("; ");
             }
         }
 
-        return finalString;
+        return finalString.toString();
     }
 
-    public List<GraphPanel.Edge> getIncludedEdges() {
-        return Collections.unmodifiableList(includedEdges);
+    public int[] getIncludedEdges() {
+        int[] result = new int[includedCount];
+        for (int i = 0; i < includedCount; i++) {
+            result[i] = log.acceptedEdge(i);
+        }
+        return result;
     }
 
-    public List<GraphPanel.Edge> getExcludedEdges() {
-        return Collections.unmodifiableList(excludedEdges);
+    public int[] getExcludedEdges() {
+        int[] result = new int[excludedCount];
+        for (int i = 0; i < excludedCount; i++) {
+            result[i] = log.rejectedEdge(i);
+        }
+        return result;
     }
 
-    public int getTotalWeight() {
+    public long getTotalWeight() {
         return totalWeight;
     }
 
-    public GraphPanel.Edge getCurrentEdge() {
+    public int getCurrentEdge() {
         return currentEdge;
     }
 
@@ -69,7 +70,12 @@ public record State( List<GraphPanel.Edge> includedEdges, List<GraphPanel.Edge>
         return isIncluded;
     }
 
-    public List<GraphPanel.Edge> getCycleEdges() {
-        return Collections.unmodifiableList(cycleEdges);
+    /**Ребра цикла, из-за которого текущее ребро отброшено. Вычисляются по требованию.
+     */
+    public int[] getCycleEdges() {
+        if (isIncluded || currentEdge == NO_EDGE) {
+            return NO_EDGES;
+        }
+        return log.findCycle(currentEdge);
     }
 }
\ No newline at end of file
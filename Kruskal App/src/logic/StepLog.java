@@ -0,0 +1,228 @@
+package src.logic;
+
+import java.util.Arrays;
+
+/**Журнал шагов алгоритма, который хранит только изменения (дельты), а не полные снимки.
+ * Шаг - это рассмотренное ребро и решение по нему. Множества включенных и отброшенных ребер
+ * только растут, поэтому состояние на шаге k - это префиксы массивов accepted и rejected.
+ * Каждые CHECKPOINT_INTERVAL шагов запоминается контрольная точка (размеры префиксов и вес),
+ * так что переход к любому шагу стоит O(1) на поиск точки и не более CHECKPOINT_INTERVAL шагов повтора.
+ */
+public class StepLog {
+    public static final int CHECKPOINT_INTERVAL = 64;
+
+    private final Graph graph;
+
+    // Дельты: ребро шага и принято ли оно
+    private int[] stepEdges = new int[16];
+    private boolean[] stepAccepted = new boolean[16];
+    private int size;
+
+    // Ребра в порядке принятия/отбрасывания
+    private int[] accepted = new int[16];
+    private int acceptedCount;
+    private int[] rejected = new int[16];
+    private int rejectedCount;
+    private long totalWeight;
+
+    // Контрольные точки: состояние до шага с номером i * CHECKPOINT_INTERVAL
+    private int[] checkpointAccepted = new int[1];
+    private int[] checkpointRejected = new int[1];
+    private long[] checkpointWeight = new long[1];
+
+    // Границы раундов для алгоритмов, работающих раундами (Борувка): номер шага после конца раунда
+    private int[] roundEnds = new int[0];
+    private int roundCount;
+
+    // Лес из всех включенных ребер для поиска циклов, строится при первом запросе
+    private MstForest forest;
+    private int forestSize;
+
+    public StepLog(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**Добавляет шаг в конец журнала.
+     * @param edge рассмотренное ребро.
+     * @param isAccepted включено ли ребро в остов.
+     */
+    public void append(int edge, boolean isAccepted) {
+        if (size % CHECKPOINT_INTERVAL == 0) {
+            int cp = size / CHECKPOINT_INTERVAL;
+            if (cp == checkpointAccepted.length) {
+                checkpointAccepted = Arrays.copyOf(checkpointAccepted, cp * 2);
+                checkpointRejected = Arrays.copyOf(checkpointRejected, cp * 2);
+                checkpointWeight = Arrays.copyOf(checkpointWeight, cp * 2);
+            }
+            checkpointAccepted[cp] = acceptedCount;
+            checkpointRejected[cp] = rejectedCount;
+            checkpointWeight[cp] = totalWeight;
+        }
+        if (size == stepEdges.length) {
+            stepEdges = Arrays.copyOf(stepEdges, size * 2);
+            stepAccepted = Arrays.copyOf(stepAccepted, size * 2);
+        }
+        stepEdges[size] = edge;
+        stepAccepted[size] = isAccepted;
+        size++;
+
+        if (isAccepted) {
+            if (acceptedCount == accepted.length) {
+                accepted = Arrays.copyOf(accepted, acceptedCount * 2);
+            }
+            accepted[acceptedCount++] = edge;
+            totalWeight += graph.weight(edge);
+        } else {
+            if (rejectedCount == rejected.length) {
+                rejected = Arrays.copyOf(rejected, rejectedCount * 2);
+            }
+            rejected[rejectedCount++] = edge;
+        }
+    }
+
+    /**Завершает текущий раунд: все шаги с момента предыдущего вызова относятся к одному раунду.
+     */
+    public void endRound() {
+        if (roundCount > 0 && roundEnds[roundCount - 1] == size) {
+            return;
+        }
+        if (roundCount == roundEnds.length) {
+            roundEnds = Arrays.copyOf(roundEnds, Math.max(4, roundCount * 2));
+        }
+        roundEnds[roundCount++] = size;
+    }
+
+    /**Возвращает количество завершенных раундов, 0 если алгоритм не делит работу на раунды.
+     */
+    public int getRoundCount() {
+        return roundCount;
+    }
+
+    /**Номер раунда (с 1), в котором сделан шаг step. Двоичный поиск по границам раундов.
+     */
+    public int roundOf(int step) {
+        int lo = 0, hi = roundCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (roundEnds[mid] < step) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo + 1;
+    }
+
+    /**Возвращает количество записанных шагов.
+     */
+    public int size() {
+        return size;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**Восстанавливает состояние после шага step.
+     * @param step номер шага от 0 (ничего не рассмотрено) до size().
+     * @return Состояние, ссылающееся на журнал без копирования списков ребер.
+     */
+    public State stateAt(int step) {
+        if (step < 0 || step > size) {
+            throw new IndexOutOfBoundsException("Шаг " + step + " вне журнала из " + size + " шагов");
+        }
+        if (step == 0) {
+            return new State(this, 0, State.NO_EDGE, false, 0, 0, 0);
+        }
+        long metric = MstMetrics.begin();
+        // Ближайшая контрольная точка не позже шага, дальше повторяем дельты
+        int cp = (step - 1) / CHECKPOINT_INTERVAL;
+        int acc = checkpointAccepted[cp];
+        int rej = checkpointRejected[cp];
+        long weight = checkpointWeight[cp];
+        for (int i = cp * CHECKPOINT_INTERVAL; i < step; i++) {
+            if (stepAccepted[i]) {
+                acc++;
+                weight += graph.weight(stepEdges[i]);
+            } else {
+                rej++;
+            }
+        }
+        MstMetrics.end(MstMetrics.Phase.STATE, metric);
+        return new State(this, step, stepEdges[step - 1], stepAccepted[step - 1], acc, rej, weight);
+    }
+
+    /**Ребро, рассмотренное на шаге с индексом i (от 0).
+     */
+    int stepEdge(int i) {
+        return stepEdges[i];
+    }
+
+    /**Было ли включено ребро шага с индексом i (от 0).
+     */
+    boolean stepAccepted(int i) {
+        return stepAccepted[i];
+    }
+
+    /**Номер шага после конца раунда с индексом i (от 0).
+     */
+    int roundEnd(int i) {
+        return roundEnds[i];
+    }
+
+    /**Возвращает i-е по порядку включенное ребро.
+     */
+    public int acceptedEdge(int i) {
+        return accepted[i];
+    }
+
+    /**Возвращает i-е по порядку отброшенное ребро.
+     */
+    public int rejectedEdge(int i) {
+        return rejected[i];
+    }
+
+    public int getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**Ищет цикл, который замкнуло бы отвергнутое ребро edge с ребрами, включенными до него.
+     * Цикл не хранится в журнале, а восстанавливается по требованию.
+     * Лес включенных ребер только растет, поэтому если концы ребра уже связаны на момент его проверки,
+     * то путь между ними в лесе из всех включенных ребер тот же. Лес строится один раз на весь журнал.
+     */
+    int[] findCycle(int edge) {
+        long metric = MstMetrics.begin();
+        if (forest == null || forestSize != acceptedCount) {
+            forest = new MstForest(graph, accepted, acceptedCount);
+            forestSize = acceptedCount;
+        }
+        int[] cycle = forest.cycle(edge);
+        MstMetrics.end(MstMetrics.Phase.CYCLE, metric);
+        if (cycle.length > 0) {
+            MstMetrics.countCyclePath(cycle.length - 1);
+        }
+        return cycle;
+    }
+
+    /**Оценка памяти, которую занимают массивы журнала (без заголовков объектов), в байтах.
+     */
+    long retainedBytes() {
+        long bytes = 4L * stepEdges.length + stepAccepted.length
+                + 4L * accepted.length + 4L * rejected.length
+                + (4L + 4L + 8L) * checkpointAccepted.length
+                + 4L * roundEnds.length;
+        if (forest != null) {
+            bytes += forest.retainedBytes();
+        }
+        return bytes;
+    }
+}
\ No newline at end of file
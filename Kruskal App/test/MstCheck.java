@@ -0,0 +1,232 @@
+package test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import src.logic.*;
+
+/**Воспроизводимая проверка параллельных алгоритмов MST против последовательного Kruskal.
+ * Графы строятся RandomGraphGenerator с фиксированными зернами: обычные, с равными весами и несвязные.
+ * Сравниваются суммарный вес, количество ребер и сам набор ребер (ничьи везде разрешаются по id).
+ * Запуск после сборки в out: javac -cp out -d out test/MstCheck.java && java -cp out test.MstCheck
+ * Код завершения 0, если все совпало, иначе 1.
+ */
+public final class MstCheck {
+    private static final long[] SEEDS = {1, 2, 3, 42, 2024};
+    // Каждый запуск PartitionedKruskal поднимает процессы JVM, поэтому для него берутся не все зерна
+    private static final long[] PROCESS_SEEDS = {1, 42};
+    private static final int[][] SHAPES = {
+            // вершины, ребра, минимальный вес, максимальный вес
+            {50, 200, 1, 20},
+            {2000, 10000, 1, 1000},
+            {2000, 10000, 1, 3}, // много равных весов
+            {3000, 3000, 5, 5}, // все веса равны
+            {100000, 400000, 1, 100000}, // выше порогов последовательной обработки
+    };
+
+    private static int failures;
+
+    private MstCheck() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, Function<Graph, MstAlgorithm>> engines = new LinkedHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(4); // Несколько потоков даже на одноядерной машине
+        engines.put("filter", graph -> new ParallelFilterKruskal(graph, pool));
+        engines.put("boruvka", graph -> new Boruvka(graph, false, pool));
+        engines.put("boruvka-steps", graph -> new Boruvka(graph, true, pool));
+        Map<String, Function<Graph, MstAlgorithm>> processes = new LinkedHashMap<>();
+        processes.put("partitioned-1", graph -> new PartitionedKruskal(graph, 1));
+        processes.put("partitioned-3", graph -> new PartitionedKruskal(graph, 3));
+
+        for (long seed : SEEDS) {
+            for (int[] shape : SHAPES) {
+                Graph graph = new RandomGraphGenerator(seed).setWeights(shape[2], shape[3]).generate(shape[0], shape[1]);
+                check("seed " + seed + " n=" + shape[0] + " m=" + shape[1] + " w=" + shape[2] + ".." + shape[3],
+                        graph, engines);
+            }
+            Graph forest = disconnected(seed);
+            check("seed " + seed + " несвязный n=" + forest.getVertexCount(), forest, engines);
+            checkConcurrentUnions(seed, pool);
+            checkDynamicMst(seed);
+        }
+        for (long seed : PROCESS_SEEDS) {
+            for (int[] shape : SHAPES) {
+                Graph graph = new RandomGraphGenerator(seed).setWeights(shape[2], shape[3]).generate(shape[0], shape[1]);
+                check("seed " + seed + " n=" + shape[0] + " m=" + shape[1] + " w=" + shape[2] + ".." + shape[3],
+                        graph, processes);
+            }
+            Graph forest = disconnected(seed);
+            check("seed " + seed + " несвязный n=" + forest.getVertexCount(), forest, processes);
+        }
+        pool.shutdown();
+        System.out.println(failures == 0 ? "OK" : "Расхождений: " + failures);
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /**Несколько компонент разного размера и изолированные вершины в одном графе.
+     */
+    private static Graph disconnected(long seed) {
+        int[][] parts = {{500, 2000}, {1, 0}, {300, 300}, {2, 1}, {1200, 6000}};
+        int n = 0;
+        long m = 0;
+        for (int[] part : parts) {
+            n += part[0];
+            m += part[1];
+        }
+        Graph graph = new Graph(n, (int) m);
+        int offset = 0;
+        for (int i = 0; i < parts.length; i++) {
+            Graph part = new RandomGraphGenerator(seed * 31 + i).setWeights(1, 10).generate(parts[i][0], parts[i][1]);
+            for (int e = 0; e < part.getEdgeCount(); e++) {
+                graph.addEdge(offset + part.src(e), offset + part.dst(e), part.weight(e));
+            }
+            offset += parts[i][0];
+        }
+        return graph;
+    }
+
+    private static void check(String name, Graph graph, Map<String, Function<Graph, MstAlgorithm>> engines) {
+        Kruskal reference = new Kruskal(graph, false);
+        int[] expected = sorted(reference.computeMST());
+        for (Map.Entry<String, Function<Graph, MstAlgorithm>> engine : engines.entrySet()) {
+            MstAlgorithm algorithm = engine.getValue().apply(graph);
+            int[] actual = sorted(algorithm.computeMST());
+            if (algorithm.getTotalWeight() != reference.getTotalWeight() || !Arrays.equals(actual, expected)) {
+                failures++;
+                System.out.println("FAIL " + engine.getKey() + " " + name + ": вес " + algorithm.getTotalWeight()
+                        + " вместо " + reference.getTotalWeight() + ", ребер " + actual.length + " вместо " + expected.length);
+            }
+        }
+    }
+
+    /**Параллельные union в ConcurrentDisjointSet против последовательного DisjointSet на тех же парах.
+     * Каждое успешное объединение сливает два множества ровно один раз, поэтому их число равно n - компоненты.
+     */
+    private static void checkConcurrentUnions(long seed, ForkJoinPool pool) {
+        int n = 50000;
+        int pairs = 60000;
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] a = new int[pairs];
+        int[] b = new int[pairs];
+        DisjointSet reference = new DisjointSet(n);
+        for (int i = 0; i < pairs; i++) {
+            a[i] = random.nextInt(n);
+            b[i] = random.nextInt(n);
+            reference.union(a[i], b[i]);
+        }
+
+        ConcurrentDisjointSet concurrent = new ConcurrentDisjointSet(n);
+        AtomicInteger merged = new AtomicInteger();
+        pool.submit(() -> IntStream.range(0, pairs).parallel().forEach(i -> {
+            if (concurrent.union(a[i], b[i])) {
+                merged.incrementAndGet();
+            }
+        })).join();
+
+        boolean same = merged.get() == n - reference.getComponents();
+        int[] representative = new int[n];
+        Arrays.fill(representative, -1);
+        for (int v = 0; v < n && same; v++) {
+            int root = reference.find(v);
+            if (representative[root] < 0) {
+                representative[root] = v;
+            }
+            same = concurrent.connected(v, representative[root]);
+        }
+        if (!same) {
+            failures++;
+            System.out.println("FAIL ConcurrentDisjointSet seed " + seed + ": объединений " + merged.get()
+                    + " вместо " + (n - reference.getComponents()));
+        }
+    }
+
+    /**Случайная последовательность добавлений и удалений в DynamicMst против Kruskal(graph, false)
+     * по текущему набору ребер. Веса из узкого диапазона, чтобы было много ничьих.
+     */
+    private static void checkDynamicMst(long seed) {
+        int n = 300;
+        int operations = 20000;
+        SplittableRandom random = new SplittableRandom(seed);
+        DynamicMst dynamic = new DynamicMst();
+        for (int v = 0; v < n; v++) {
+            dynamic.addVertex();
+        }
+        boolean[] alive = new boolean[n];
+        Arrays.fill(alive, true);
+        // Живые ребра: номера в DynamicMst и их концы с весами
+        int[] live = new int[operations];
+        int liveCount = 0;
+        int[] src = new int[operations];
+        int[] dst = new int[operations];
+        int[] weight = new int[operations];
+
+        for (int op = 1; op <= operations; op++) {
+            int action = random.nextInt(100);
+            if (action < 55 || liveCount == 0) {
+                int u = random.nextInt(n), v = random.nextInt(n);
+                if (u == v || !alive[u] || !alive[v]) {
+                    continue;
+                }
+                int w = random.nextInt(1, 6);
+                int e = dynamic.addEdge(u, v, w);
+                src[e] = u;
+                dst[e] = v;
+                weight[e] = w;
+                live[liveCount++] = e;
+            } else if (action < 99) {
+                int i = random.nextInt(liveCount);
+                dynamic.removeEdge(live[i]);
+                live[i] = live[--liveCount];
+            } else {
+                int v = random.nextInt(n);
+                if (!alive[v]) {
+                    continue;
+                }
+                dynamic.removeVertex(v);
+                alive[v] = false;
+                int kept = 0;
+                for (int i = 0; i < liveCount; i++) {
+                    if (src[live[i]] != v && dst[live[i]] != v) {
+                        live[kept++] = live[i];
+                    }
+                }
+                liveCount = kept;
+            }
+
+            if (op % 500 == 0) {
+                // Ребра графа идут по возрастанию номеров DynamicMst, поэтому ничьи разрешаются одинаково
+                int[] ids = Arrays.copyOf(live, liveCount);
+                Arrays.sort(ids);
+                Graph graph = new Graph(n, Math.max(liveCount, 1));
+                for (int e : ids) {
+                    graph.addEdge(src[e], dst[e], weight[e]);
+                }
+                Kruskal reference = new Kruskal(graph, false);
+                int[] expected = reference.computeMST();
+                for (int i = 0; i < expected.length; i++) {
+                    expected[i] = ids[expected[i]];
+                }
+                if (dynamic.getTotalWeight() != reference.getTotalWeight()
+                        || !Arrays.equals(sorted(dynamic.getTreeEdges()), sorted(expected))) {
+                    failures++;
+                    System.out.println("FAIL DynamicMst seed " + seed + " операция " + op + ": вес " + dynamic.getTotalWeight()
+                            + " вместо " + reference.getTotalWeight() + ", ребер " + dynamic.getTreeEdgeCount()
+                            + " вместо " + expected.length);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int[] sorted(int[] edges) {
+        int[] copy = edges.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
\ No newline at end of file